@@ -0,0 +1,119 @@
+package com.ans;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+// Gera dados sintéticos no formato dos arquivos da ANS (mesmas colunas, aspas e separadores),
+// com semente fixa para que cada execução meça exatamente a mesma entrada
+final class AnsDataGenerator {
+    static final String FINANCIAL_HEADER =
+            "\"DATA\";\"REG_ANS\";\"CD_CONTA_CONTABIL\";\"DESCRICAO\";\"CONSOLIDADO\";\"VL_SALDO_FINAL\"";
+
+    private static final String[] ACCOUNTS = {"31", "311", "3111", "41", "411", "4111", "46", "461"};
+    private static final String[] DESCRIPTIONS = {
+            "CONTRAPRESTAÇÕES EFETIVAS DE PLANO DE ASSISTÊNCIA À SAÚDE",
+            "EVENTOS/ SINISTROS CONHECIDOS OU AVISADOS DE ASSISTÊNCIA A SAÚDE MEDICO HOSPITALAR",
+            "DESPESAS ADMINISTRATIVAS",
+            "Receitas com Operações de Assistência à Saúde",
+            "PROVISÃO PARA EVENTOS OCORRIDOS E NÃO AVISADOS"
+    };
+    private static final String[] PROCEDURES = {
+            "CONSULTA MÉDICA EM CONSULTÓRIO", "RADIOGRAFIA PERIAPICAL", "HEMOGRAMA COMPLETO",
+            "RESTAURAÇÃO DE AMÁLGAMA - 1 FACE", "TOMOGRAFIA COMPUTADORIZADA DO CRÂNIO"
+    };
+
+    private AnsDataGenerator() {
+    }
+
+    // CSV de demonstrações contábeis de um trimestre, com cabeçalho
+    static String financialCsv(int rows, int quarter, long seed) {
+        Random random = new Random(seed);
+        StringBuilder csv = new StringBuilder(rows * 120);
+        csv.append(FINANCIAL_HEADER).append('\n');
+        String date = "2024-" + String.format("%02d", (quarter - 1) * 3 + 1) + "-01";
+        for (int i = 0; i < rows; i++) {
+            csv.append('"').append(date).append("\";\"")
+                    .append(300000 + random.nextInt(1500)).append("\";\"")
+                    .append(ACCOUNTS[random.nextInt(ACCOUNTS.length)]).append("\";\"")
+                    .append(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)]).append("\";\"")
+                    .append(random.nextInt(2)).append("\";\"")
+                    .append(brazilianDecimal(random.nextLong() % 10_000_000_000L)).append("\"\n");
+        }
+        return csv.toString();
+    }
+
+    // Grava quatro trimestres em arquivos temporários (apagados ao sair da JVM)
+    static File[] financialQuarterFiles(int rowsPerQuarter, long seed) throws IOException {
+        File[] files = new File[4];
+        for (int quarter = 1; quarter <= 4; quarter++) {
+            File file = File.createTempFile(quarter + "T2024_", ".csv");
+            file.deleteOnExit();
+            Files.writeString(file.toPath(), financialCsv(rowsPerQuarter, quarter, seed + quarter),
+                    StandardCharsets.UTF_8);
+            files[quarter - 1] = file;
+        }
+        return files;
+    }
+
+    // Linha do Relatorio_cadop.csv já separada em 19 colunas, como o opencsv entrega
+    static String[] operatorLine(Random random) {
+        return new String[]{
+                String.valueOf(300000 + random.nextInt(1500)),
+                String.format("%014d", random.nextLong() & 0xFFFFFFFFFFFFL),
+                "OPERADORA DE SAÚDE " + random.nextInt(10000) + " LTDA",
+                "SAÚDE " + random.nextInt(10000),
+                "Medicina de Grupo",
+                "RUA DAS FLORES",
+                String.valueOf(random.nextInt(5000)),
+                "SALA " + random.nextInt(100),
+                "CENTRO",
+                "São Paulo",
+                "SP",
+                String.format("%08d", random.nextInt(100_000_000)),
+                "11",
+                String.valueOf(30000000 + random.nextInt(9999999)),
+                "",
+                "contato@operadora.com.br",
+                "FULANO DE TAL",
+                "DIRETOR",
+                "20" + (10 + random.nextInt(15)) + "-0" + (1 + random.nextInt(9)) + "-1" + random.nextInt(10)
+        };
+    }
+
+    // Texto como o PDFTextStripper devolve para o Anexo I: linhas de procedimento entre ruído.
+    // Com irregular, as linhas trazem colunas extras depois do tipo e só as estratégias
+    // mais soltas as reconhecem.
+    static String pdfText(int rows, long seed, boolean irregular) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder(rows * 80);
+        for (int i = 0; i < rows; i++) {
+            if (i % 40 == 0) {
+                text.append("ANEXO I - LISTA DE PROCEDIMENTOS E EVENTOS EM SAÚDE\r\n");
+                text.append("PROCEDIMENTO  RN  VIGÊNCIA  OD  AMB  HCO  HSO  REF  PAC  DUT\r\n");
+            }
+            text.append(10100000 + random.nextInt(90000000)).append("  ")
+                    .append(PROCEDURES[random.nextInt(PROCEDURES.length)]).append("  ")
+                    .append(random.nextBoolean() ? "OD" : "AMB")
+                    .append(irregular ? "\tHCO  REF" : "").append("\r\n");
+        }
+        return text.toString();
+    }
+
+    // Valor no formato brasileiro com duas casas: -1.234.567,89
+    private static String brazilianDecimal(long cents) {
+        StringBuilder value = new StringBuilder();
+        long abs = Math.abs(cents);
+        String integer = String.valueOf(abs / 100);
+        for (int i = 0; i < integer.length(); i++) {
+            if (i > 0 && (integer.length() - i) % 3 == 0) {
+                value.append('.');
+            }
+            value.append(integer.charAt(i));
+        }
+        value.append(',').append(String.format("%02d", abs % 100));
+        return cents < 0 ? "-" + value : value.toString();
+    }
+}
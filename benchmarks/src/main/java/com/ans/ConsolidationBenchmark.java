@@ -0,0 +1,51 @@
+package com.ans;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+// Leitura encadeada dos quatro trimestres gravando o CSV consolidado ao lado
+// (sucessor do antigo consolidateFinancialData), com o opencsv e com o parser dedicado
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsolidationBenchmark {
+
+    @Param({"50000"})
+    public int rowsPerQuarter;
+
+    private File[] files;
+    private File consolidated;
+
+    @Setup
+    public void setup() throws Exception {
+        files = AnsDataGenerator.financialQuarterFiles(rowsPerQuarter, 11);
+        consolidated = File.createTempFile("consolidated_", ".csv");
+        consolidated.deleteOnExit();
+    }
+
+    @Benchmark
+    public void openCsv(Blackhole bh) throws Exception {
+        try (QuarterlyCsvReader reader = new QuarterlyCsvReader(files, consolidated.getPath())) {
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                bh.consume(line);
+            }
+        }
+    }
+
+    @Benchmark
+    public void fastParser(Blackhole bh) throws Exception {
+        FinancialRow row = new FinancialRow();
+        try (FinancialCsvParser parser = new FinancialCsvParser(files, consolidated.getPath())) {
+            while (parser.next(row)) {
+                bh.consume(row.balanceUnscaled);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ans;
+
+import com.opencsv.CSVReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Conversão das linhas do CSV em valores das colunas, como no ANSDataImporter:
+// opencsv + parseFinancialRow contra o FinancialCsvParser, e parseOperatorRow
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParsingBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private String financialCsv;
+    private String[][] operatorLines;
+
+    @Setup
+    public void setup() {
+        financialCsv = AnsDataGenerator.financialCsv(rows, 1, 42);
+        Random random = new Random(42);
+        operatorLines = new String[Math.max(1, rows / 10)][];
+        for (int i = 0; i < operatorLines.length; i++) {
+            operatorLines[i] = AnsDataGenerator.operatorLine(random);
+        }
+    }
+
+    @Benchmark
+    public void financialOpenCsv(Blackhole bh) throws Exception {
+        try (CSVReader reader = QuarterlyCsvReader.openCsv(new StringReader(financialCsv))) {
+            reader.readNext(); // Cabeçalho
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                bh.consume(ANSDataImporter.parseFinancialRow(line));
+            }
+        }
+    }
+
+    @Benchmark
+    public void financialFastParser(Blackhole bh) throws Exception {
+        FinancialRow row = new FinancialRow();
+        try (FinancialCsvParser parser = new FinancialCsvParser(new StringReader(financialCsv))) {
+            while (parser.next(row)) {
+                bh.consume(row.reportEpochDay);
+                bh.consume(row.operatorCode);
+                bh.consume(row.balanceUnscaled);
+            }
+        }
+    }
+
+    @Benchmark
+    public void operators(Blackhole bh) {
+        for (String[] line : operatorLines) {
+            bh.consume(ANSDataImporter.parseOperatorRow(line));
+        }
+    }
+}
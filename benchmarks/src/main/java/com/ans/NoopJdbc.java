@@ -0,0 +1,46 @@
+package com.ans;
+
+import org.postgresql.copy.CopyIn;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+// Implementações JDBC que aceitam tudo e não enviam nada: isolam o custo do nosso código
+// (conversão, bind, codificação do COPY) do custo da rede e do PostgreSQL
+final class NoopJdbc {
+
+    private NoopJdbc() {
+    }
+
+    static Connection connection() {
+        PreparedStatement statement = proxy(PreparedStatement.class);
+        return (Connection) Proxy.newProxyInstance(NoopJdbc.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (p, method, args) -> method.getName().equals("prepareStatement") ? statement : defaultValue(method.getReturnType()));
+    }
+
+    static CopyIn copyIn() {
+        return proxy(CopyIn.class);
+    }
+
+    private static <T> T proxy(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(NoopJdbc.class.getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> defaultValue(method.getReturnType())));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == int[].class) {
+            return new int[0];
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
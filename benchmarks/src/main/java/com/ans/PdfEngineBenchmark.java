@@ -0,0 +1,44 @@
+package com.ans;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Motor de regex contra o Tabula sobre os anexos reais em web-scraping/downloads (rodar a
+// partir de benchmarks/). Além do tempo, o setup imprime quantas linhas cada motor extraiu,
+// como medida de cobertura para comparar os dois.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PdfEngineBenchmark {
+
+    @Param({"../web-scraping/downloads/Anexo_II_DUT_2021_RN_465.2021_RN628.2025_RN629.2025.pdf"})
+    public String pdf;
+
+    @Param({PdfToCsv.ENGINE_REGEX, PdfToCsv.ENGINE_TABULA})
+    public String engine;
+
+    @Param({"4"})
+    public int threads;
+
+    private File file;
+
+    @Setup
+    public void setup() throws Exception {
+        file = new File(pdf);
+        List<String[]> rows = PdfToCsv.extractRows(file, engine, threads);
+        long described = rows.stream().filter(row -> !row[1].isEmpty()).count();
+        System.out.println("\n📄 " + engine + ": " + rows.size() + " linhas (" + described + " com descrição) em " +
+                file.getName());
+    }
+
+    @Benchmark
+    public List<String[]> extract() throws Exception {
+        return PdfToCsv.extractRows(file, engine, threads);
+    }
+}
@@ -0,0 +1,35 @@
+package com.ans;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Classificação das linhas do PdfToCsv sobre texto sintético do Anexo I. O layout irregular
+// exercita o caminho em que a estratégia padrão falha em todas as linhas.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfExtractionBenchmark {
+
+    @Param({"5000", "50000"})
+    public int rows;
+
+    @Param({"clean", "irregular"})
+    public String layout;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        text = AnsDataGenerator.pdfText(rows, 3, layout.equals("irregular"));
+    }
+
+    @Benchmark
+    public List<String[]> classifyLines() {
+        return PdfToCsv.classifyLines(text, new LineClassifier());
+    }
+}
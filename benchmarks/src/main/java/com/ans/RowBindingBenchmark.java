@@ -0,0 +1,75 @@
+package com.ans;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Custo de levar linhas já convertidas até o driver: bind no PreparedStatement (INSERT em lote)
+// ou codificação do COPY. O JDBC é substituído por NoopJdbc, então só o nosso lado é medido.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowBindingBenchmark {
+
+    @Param({"insert", "copy-text", "copy-binary"})
+    public String mode;
+
+    @Param({"100000"})
+    public int rows;
+
+    private Object[][] values;
+    private FinancialRow[] financialRows;
+
+    @Setup
+    public void setup() throws Exception {
+        List<Object[]> parsedValues = new ArrayList<>();
+        List<FinancialRow> parsedRows = new ArrayList<>();
+        try (FinancialCsvParser parser = new FinancialCsvParser(
+                new StringReader(AnsDataGenerator.financialCsv(rows, 1, 7)))) {
+            FinancialRow row = new FinancialRow();
+            while (parser.next(row)) {
+                parsedValues.add(row.toValues());
+                parsedRows.add(row);
+                row = new FinancialRow();
+            }
+        }
+        values = parsedValues.toArray(new Object[0][]);
+        financialRows = parsedRows.toArray(new FinancialRow[0]);
+    }
+
+    private RowLoader open() throws Exception {
+        return switch (LoaderMode.fromKey(mode)) {
+            case INSERT -> new BatchInsertLoader(NoopJdbc.connection(), TableSpec.FINANCIAL_REPORTS, 1000);
+            case COPY_TEXT -> new CopyLoader(NoopJdbc.copyIn(), TableSpec.FINANCIAL_REPORTS, false);
+            case COPY_BINARY -> new CopyLoader(NoopJdbc.copyIn(), TableSpec.FINANCIAL_REPORTS, true);
+        };
+    }
+
+    @Benchmark
+    public long objectRows() throws Exception {
+        try (RowLoader loader = open()) {
+            for (Object[] row : values) {
+                loader.addRow(row);
+            }
+            loader.finish();
+        }
+        return values.length;
+    }
+
+    @Benchmark
+    public long financialRows() throws Exception {
+        try (RowLoader loader = open()) {
+            for (FinancialRow row : financialRows) {
+                loader.addFinancialRow(row);
+            }
+            loader.finish();
+        }
+        return financialRows.length;
+    }
+}
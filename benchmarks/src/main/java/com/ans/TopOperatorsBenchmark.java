@@ -0,0 +1,103 @@
+package com.ans;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+// Top 10 operadoras por despesas em um trimestre e no ano: ColumnarStore em memória contra a
+// consulta de 02_analytical_queries.sql no PostgreSQL. O caminho SQL só roda com um banco já
+// importado: java -jar target/benchmarks.jar TopOperators -p jdbcUrl=jdbc:postgresql://localhost:5432/teste3_database
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TopOperatorsBenchmark {
+    private static final LocalDate YEAR_START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate QUARTER_END = LocalDate.of(2024, 4, 1);
+    private static final LocalDate YEAR_END = LocalDate.of(2025, 1, 1);
+
+    @State(Scope.Benchmark)
+    public static class Columnar {
+        @Param({"250000"})
+        public int rowsPerQuarter;
+
+        ColumnarStore store;
+        final Predicate<String> synthetic = QuarterlyRollup::isSynthetic;
+        final Predicate<String> expenses = ColumnarStore.like(ANSAnalytics.EXPENSES_PATTERN);
+
+        @Setup
+        public void setup() throws Exception {
+            store = ColumnarStore.load(AnsDataGenerator.financialQuarterFiles(rowsPerQuarter, 23));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Sql {
+        @Param({""})
+        public String jdbcUrl;
+
+        Connection conn;
+        PreparedStatement query;
+
+        @Setup
+        public void setup() throws Exception {
+            if (jdbcUrl.isEmpty()) {
+                throw new IllegalStateException("Informe o banco com -p jdbcUrl=...");
+            }
+            conn = DriverManager.getConnection(jdbcUrl, "postgres", "password");
+            query = conn.prepareStatement(
+                    "SELECT f.operator_code, SUM(f.balance) AS total FROM financial_reports f " +
+                            "WHERE f.description ILIKE ? AND length(f.account) <= 4 " +
+                            "AND f.report_date >= ? AND f.report_date < ? " +
+                            "GROUP BY f.operator_code ORDER BY total DESC LIMIT 10");
+            query.setString(1, ANSAnalytics.EXPENSES_PATTERN);
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            conn.close();
+        }
+
+        List<BigDecimal> run(LocalDate from, LocalDate to) throws Exception {
+            query.setDate(2, java.sql.Date.valueOf(from));
+            query.setDate(3, java.sql.Date.valueOf(to));
+            List<BigDecimal> totals = new ArrayList<>();
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    totals.add(rs.getBigDecimal(2));
+                }
+            }
+            return totals;
+        }
+    }
+
+    @Benchmark
+    public List<ColumnarStore.OperatorTotal> columnarQuarter(Columnar state) {
+        return state.store.topOperators(YEAR_START, QUARTER_END, state.synthetic, state.expenses, 10);
+    }
+
+    @Benchmark
+    public List<ColumnarStore.OperatorTotal> columnarYear(Columnar state) {
+        return state.store.topOperators(YEAR_START, YEAR_END, state.synthetic, state.expenses, 10);
+    }
+
+    @Benchmark
+    public List<BigDecimal> sqlQuarter(Sql state) throws Exception {
+        return state.run(YEAR_START, QUARTER_END);
+    }
+
+    @Benchmark
+    public List<BigDecimal> sqlYear(Sql state) throws Exception {
+        return state.run(YEAR_START, YEAR_END);
+    }
+}
@@ -0,0 +1,71 @@
+package com.ans;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Classifica cada linha do texto do PDF numa única passada, tentando as três estratégias em
+// ordem (da mais estrita para a mais solta) e ficando com a primeira que casar. Os Matchers
+// são reaproveitados com reset, então cada instância deve ser usada por uma thread só.
+final class LineClassifier {
+    static final int STANDARD = 0;
+    static final int ADVANCED = 1;
+    static final int FALLBACK = 2;
+
+    // Estratégia 1: Para tabelas bem formatadas
+    private static final Pattern STANDARD_PATTERN = Pattern.compile("^(\\d{4,})\\s+(.+?)\\s+(OD|AMB)\\s*$");
+    // Estratégia 2: Para PDFs com formatação irregular
+    private static final Pattern ADVANCED_PATTERN = Pattern.compile("(\\d{4,})[\\s|\\t]+(.+?)[\\s|\\t]+(OD|AMB)");
+    // Estratégia 3: Fallback para casos extremos
+    private static final Pattern CODE_PATTERN = Pattern.compile("\\d{4,}");
+    private static final Pattern TYPE_PATTERN = Pattern.compile("\\b(OD|AMB)\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern COLUMN_GAP = Pattern.compile("\\s{2,}|\\t");
+
+    private final Matcher standard = STANDARD_PATTERN.matcher("");
+    private final Matcher advanced = ADVANCED_PATTERN.matcher("");
+    private final Matcher code = CODE_PATTERN.matcher("");
+    private final Matcher type = TYPE_PATTERN.matcher("");
+    private final Matcher whitespace = WHITESPACE.matcher("");
+    private final int[] hits = new int[3];
+
+    // Linha do CSV (código, descrição, tipo) ou null se nenhuma estratégia reconhecer a linha
+    String[] classify(String line) {
+        String trimmed = line.trim();
+        if (standard.reset(trimmed).matches()) {
+            hits[STANDARD]++;
+            return createRow(standard.group(1), standard.group(2), standard.group(3));
+        }
+        if (advanced.reset(trimmed).find()) {
+            hits[ADVANCED]++;
+            return createRow(advanced.group(1), advanced.group(2), advanced.group(3));
+        }
+
+        // Os filtros olham a linha com espaços normalizados, mas as colunas são separadas
+        // na linha original: depois de normalizar não sobra nenhum espaço duplo para dividir
+        String normalized = whitespace.reset(trimmed).replaceAll(" ");
+        if (code.reset(normalized).find() && type.reset(normalized).find()) {
+            String[] parts = COLUMN_GAP.split(trimmed);
+            if (parts.length >= 3) {
+                hits[FALLBACK]++;
+                return createRow(parts[0], parts[1], parts[2]);
+            }
+        }
+        return null;
+    }
+
+    int hits(int strategy) {
+        return hits[strategy];
+    }
+
+    String summary() {
+        return "padrão=" + hits[STANDARD] + ", avançada=" + hits[ADVANCED] + ", fallback=" + hits[FALLBACK];
+    }
+
+    private static String[] createRow(String code, String desc, String type) {
+        return new String[]{
+                code.trim(),
+                desc.trim(),
+                type.equals("OD") ? "Odontológico" : "Ambulatorial"
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package com.ans;
 
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import com.opencsv.CSVWriter;
@@ -11,9 +12,27 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.*;
 
 public class PdfToCsv {
+    // Threads da extração de texto (-Dans.pdf.threads) e páginas por bloco distribuído entre elas
+    private static final int EXTRACTION_THREADS =
+            Integer.getInteger("ans.pdf.threads", Runtime.getRuntime().availableProcessors());
+    private static final int PAGES_PER_CHUNK = 8;
+    // Blocos extraídos e ainda não consumidos, por thread: limita a memória do modo streaming
+    private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+    private static final boolean STREAMING = Boolean.getBoolean("ans.pdf.stream");
+    // Motor de extração: regex sobre o texto (padrão) ou tabula (--engine=tabula ou -Dans.pdf.engine)
+    static final String ENGINE_REGEX = "regex";
+    static final String ENGINE_TABULA = "tabula";
+    private static final Pattern LINE_BREAK = Pattern.compile("\\r?\\n");
+
     public static void main(String[] args) {
         final String ZIP_PATH = "../web-scraping/anexos.zip";
         final String CSV_FILE = "procedimentos.csv";
@@ -21,13 +40,28 @@ public class PdfToCsv {
         final String DEBUG_FILE = "pdf_debug.txt";
 
         try {
+            String engine = engine(args);
+
             // 1. Extrair e validar PDF
             String pdfPath = extractPdf(ZIP_PATH);
 
             // 2. Processamento com múltiplas estratégias
-            List<String[]> tableData = extractData(pdfPath, DEBUG_FILE);
+            int rowCount;
+            if (engine.equals(ENGINE_TABULA)) {
+                // Tabelas reconstruídas pelo Tabula, página a página direto para o CSV
+                rowCount = convertWithTabula(new File(pdfPath), CSV_FILE);
+            } else if (STREAMING) {
+                // Modo streaming: página a página direto para o CSV, sem o texto inteiro em memória
+                rowCount = convertStreaming(new File(pdfPath), CSV_FILE, DEBUG_FILE);
+            } else {
+                List<String[]> tableData = extractData(pdfPath, DEBUG_FILE);
+                if (!tableData.isEmpty()) {
+                    generateCsv(CSV_FILE, tableData);
+                }
+                rowCount = tableData.size();
+            }
 
-            if (tableData.isEmpty()) {
+            if (rowCount == 0) {
                 throw new IOException("""
                     Nenhum dado extraído. Verifique:
                     1. O arquivo """ + DEBUG_FILE + " para ver a estrutura real\n" +
@@ -35,11 +69,10 @@ public class PdfToCsv {
             }
 
             // 3. Gerar arquivos de saída
-            generateCsv(CSV_FILE, tableData);
             createZip(OUTPUT_ZIP, CSV_FILE);
 
             System.out.println("\n✅ Conversão concluída com sucesso!");
-            System.out.println("Registros extraídos: " + tableData.size());
+            System.out.println("Registros extraídos: " + rowCount);
             System.out.println("Arquivo final: " + OUTPUT_ZIP);
 
         } catch (Exception e) {
@@ -48,6 +81,20 @@ public class PdfToCsv {
         }
     }
 
+    // Motor escolhido na linha de comando (--engine=regex|tabula), com -Dans.pdf.engine como alternativa
+    static String engine(String[] args) {
+        String engine = System.getProperty("ans.pdf.engine", ENGINE_REGEX);
+        for (String arg : args) {
+            if (arg.startsWith("--engine=")) {
+                engine = arg.substring("--engine=".length());
+            }
+        }
+        if (!engine.equals(ENGINE_REGEX) && !engine.equals(ENGINE_TABULA)) {
+            throw new IllegalArgumentException("Motor desconhecido: " + engine + " (use regex ou tabula)");
+        }
+        return engine;
+    }
+
     // Extrai o PDF do ZIP com validação
     private static String extractPdf(String zipPath) throws IOException {
         ZipFile zipFile = new ZipFile(zipPath);
@@ -69,75 +116,206 @@ public class PdfToCsv {
         Files.writeString(Path.of(debugPath), pdfContent, StandardOpenOption.CREATE);
         System.out.println("Arquivo de diagnóstico gerado: " + debugPath);
 
-        // Tenta diferentes estratégias
-        List<String[]> data = tryStandardExtraction(pdfContent);
-        if (data.isEmpty()) data = tryAdvancedExtraction(pdfContent);
-        if (data.isEmpty()) data = tryFallbackExtraction(pdfContent);
+        // Todas as estratégias numa única passada, escolhendo a melhor para cada linha
+        LineClassifier classifier = new LineClassifier();
+        List<String[]> data = classifyLines(pdfContent, classifier);
+        System.out.println("📊 Linhas por estratégia: " + classifier.summary());
+        return data;
+    }
 
+    static List<String[]> classifyLines(String text, LineClassifier classifier) {
+        List<String[]> data = new ArrayList<>();
+        for (String line : LINE_BREAK.split(text)) {
+            String[] row = classifier.classify(line);
+            if (row != null) {
+                data.add(row);
+            }
+        }
         return data;
     }
 
-    // Extrai conteúdo completo do PDF
-    private static String getPdfContent(String pdfPath) throws IOException {
-        try (PDDocument doc = PDDocument.load(new File(pdfPath))) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            stripper.setSortByPosition(true);
-            return stripper.getText(doc);
+    // Modo streaming: o texto de cada bloco de páginas passa pelo classificador e as linhas
+    // encontradas vão direto para o CSV; o diagnóstico é gravado à medida que chega
+    static int convertStreaming(File pdf, String csvPath, String debugPath) throws IOException {
+        LineClassifier classifier = new LineClassifier();
+        int rowCount;
+        try (Writer debug = Files.newBufferedWriter(Path.of(debugPath))) {
+            rowCount = streamRows(pdf, csvPath, classifier, debug);
         }
+        System.out.println("Arquivo de diagnóstico gerado: " + debugPath);
+        System.out.println("📊 Linhas por estratégia: " + classifier.summary());
+        return rowCount;
     }
 
-    // Estratégia 1: Para tabelas bem formatadas
-    private static List<String[]> tryStandardExtraction(String text) {
-        List<String[]> data = new ArrayList<>();
-        Pattern pattern = Pattern.compile("^(\\d{4,})\\s+(.+?)\\s+(OD|AMB)\\s*$");
+    private static int streamRows(File pdf, String csvPath, LineClassifier classifier, Writer debug)
+            throws IOException {
+        int[] rowCount = {0};
+        try (CSVWriter writer = new CSVWriter(new FileWriter(csvPath))) {
+            writer.writeNext(new String[]{"Código", "Descrição", "Tipo"});
+            streamText(pdf, EXTRACTION_THREADS, text -> {
+                debug.write(text);
+                for (String line : LINE_BREAK.split(text)) {
+                    String[] row = classifier.classify(line);
+                    if (row != null) {
+                        writer.writeNext(row);
+                        rowCount[0]++;
+                    }
+                }
+            });
+        }
+        return rowCount[0];
+    }
 
-        for (String line : text.split("\\r?\\n")) {
-            Matcher m = pattern.matcher(line.trim());
-            if (m.matches()) {
-                data.add(createRow(m.group(1), m.group(2), m.group(3)));
-            }
+    static int convertWithTabula(File pdf, String csvPath) throws IOException {
+        int[] rowCount = {0};
+        try (CSVWriter writer = new CSVWriter(new FileWriter(csvPath))) {
+            writer.writeNext(new String[]{"Código", "Descrição", "Tipo"});
+            streamChunks(pdf, EXTRACTION_THREADS, TabulaEngine::extract, rows -> {
+                writer.writeAll(rows);
+                rowCount[0] += rows.size();
+            });
         }
-        return data;
+        return rowCount[0];
     }
 
-    // Estratégia 2: Para PDFs com formatação irregular
-    private static List<String[]> tryAdvancedExtraction(String text) {
-        List<String[]> data = new ArrayList<>();
-        Pattern pattern = Pattern.compile("(\\d{4,})[\\s|\\t]+(.+?)[\\s|\\t]+(OD|AMB)");
+    // Todas as linhas extraídas pelo motor indicado (usado para comparar os motores)
+    static List<String[]> extractRows(File pdf, String engine, int threads) throws IOException {
+        if (engine.equals(ENGINE_TABULA)) {
+            List<String[]> rows = new ArrayList<>();
+            streamChunks(pdf, threads, TabulaEngine::extract, rows::addAll);
+            return rows;
+        }
+        return classifyLines(extractText(pdf, threads), new LineClassifier());
+    }
+
+    // Extrai conteúdo completo do PDF
+    private static String getPdfContent(String pdfPath) throws IOException {
+        return extractText(new File(pdfPath), EXTRACTION_THREADS);
+    }
+
+    // Texto do documento inteiro, montado a partir do fluxo de blocos em ordem
+    static String extractText(File pdf, int threads) throws IOException {
+        StringBuilder text = new StringBuilder();
+        streamText(pdf, threads, text::append);
+        return text.toString();
+    }
 
-        for (String line : text.split("\\r?\\n")) {
-            Matcher m = pattern.matcher(line.trim());
-            if (m.find()) {
-                data.add(createRow(m.group(1), m.group(2), m.group(3)));
+    // Extrai um intervalo de páginas (inclusivo) de um documento aberto pela thread
+    interface PageRangeExtractor<T> {
+        T extract(PDDocument doc, int startPage, int endPage) throws IOException;
+    }
+
+    interface ChunkConsumer<T> {
+        void accept(T chunk) throws IOException;
+    }
+
+    // Entrega o texto em blocos de páginas, na ordem do documento.
+    // A concatenação dos blocos é idêntica ao texto de um único PDFTextStripper.
+    static void streamText(File pdf, int threads, ChunkConsumer<String> consumer) throws IOException {
+        streamChunks(pdf, threads, PdfToCsv::stripPages, consumer);
+    }
+
+    // Processa o PDF em blocos de páginas, entregando os resultados na ordem do documento. Os
+    // blocos são extraídos em paralelo; como o PDDocument não é thread-safe, cada thread abre
+    // o seu. No máximo CHUNKS_IN_FLIGHT_PER_THREAD blocos por thread ficam em memória
+    // esperando o consumidor. O documento usado para contar as páginas é fechado antes de as
+    // threads começarem, então ficam abertos no máximo threads documentos.
+    static <T> void streamChunks(File pdf, int threads, PageRangeExtractor<T> extractor,
+                                 ChunkConsumer<T> consumer) throws IOException {
+        int pages;
+        int chunks;
+        int workers;
+        try (PDDocument doc = load(pdf)) {
+            pages = doc.getNumberOfPages();
+            chunks = (pages + PAGES_PER_CHUNK - 1) / PAGES_PER_CHUNK;
+            workers = Math.min(threads, chunks);
+            if (workers <= 1) {
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    consumer.accept(extractChunk(doc, pages, chunk, extractor));
+                }
+                return;
             }
         }
-        return data;
+
+        List<CompletableFuture<T>> results = new ArrayList<>();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            results.add(new CompletableFuture<>());
+        }
+        AtomicInteger nextChunk = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(workers * CHUNKS_IN_FLIGHT_PER_THREAD);
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "pdf-pages-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int i = 0; i < workers; i++) {
+                pool.execute(() -> extractChunks(pdf, pages, extractor, nextChunk, inFlight, results));
+            }
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                T result = results.get(chunk).get();
+                results.set(chunk, null); // Libera o bloco assim que consumido
+                inFlight.release();
+                consumer.accept(result);
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Extração interrompida", e);
+        } finally {
+            pool.shutdownNow();
+        }
     }
 
-    // Estratégia 3: Fallback para casos extremos
-    private static List<String[]> tryFallbackExtraction(String text) {
-        List<String[]> data = new ArrayList<>();
-        Pattern codePattern = Pattern.compile("\\d{4,}");
-        Pattern typePattern = Pattern.compile("\\b(OD|AMB)\\b");
-
-        for (String line : text.split("\\r?\\n")) {
-            line = line.replaceAll("\\s+", " ").trim();
-            if (codePattern.matcher(line).find() && typePattern.matcher(line).find()) {
-                String[] parts = line.split("\\s{2,}|\\t");
-                if (parts.length >= 3) {
-                    data.add(createRow(parts[0], parts[1], parts[2]));
+    // Laço de cada thread: pega o próximo bloco livre enquanto houver espaço na janela
+    private static <T> void extractChunks(File pdf, int pages, PageRangeExtractor<T> extractor,
+                                          AtomicInteger nextChunk, Semaphore inFlight,
+                                          List<CompletableFuture<T>> results) {
+        try (PDDocument own = load(pdf)) {
+            while (true) {
+                inFlight.acquire();
+                int chunk = nextChunk.getAndIncrement();
+                if (chunk >= results.size()) {
+                    return;
                 }
+                try {
+                    results.get(chunk).complete(extractChunk(own, pages, chunk, extractor));
+                } catch (IOException | RuntimeException e) {
+                    results.get(chunk).completeExceptionally(e);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            // Sem documento: falha o próximo bloco que seria desta thread, e o consumidor para nele
+            int chunk = nextChunk.getAndIncrement();
+            if (chunk < results.size()) {
+                results.get(chunk).completeExceptionally(e);
             }
         }
-        return data;
     }
 
-    private static String[] createRow(String code, String desc, String type) {
-        return new String[]{
-                code.trim(),
-                desc.trim(),
-                type.equals("OD") ? "Odontológico" : "Ambulatorial"
-        };
+    // No modo streaming os buffers do PDFBox vão para arquivo temporário em vez do heap
+    private static PDDocument load(File pdf) throws IOException {
+        return PDDocument.load(pdf, STREAMING ? MemoryUsageSetting.setupTempFileOnly()
+                : MemoryUsageSetting.setupMainMemoryOnly());
+    }
+
+    private static <T> T extractChunk(PDDocument doc, int pages, int chunk, PageRangeExtractor<T> extractor)
+            throws IOException {
+        int start = chunk * PAGES_PER_CHUNK + 1;
+        return extractor.extract(doc, start, Math.min(pages, start + PAGES_PER_CHUNK - 1));
+    }
+
+    private static String stripPages(PDDocument doc, int startPage, int endPage) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setSortByPosition(true);
+        stripper.setStartPage(startPage);
+        stripper.setEndPage(endPage);
+        return stripper.getText(doc);
     }
 
     private static void generateCsv(String csvPath, List<String[]> data) throws IOException {
@@ -148,6 +326,7 @@ public class PdfToCsv {
     }
 
     private static void createZip(String zipPath, String fileToZip) throws IOException {
-        new ZipFile(zipPath).addFile(fileToZip);
+        File file = new File(fileToZip);
+        new ZipFile(zipPath).addFile(file, ZipCompression.parametersFor(file));
     }
 }
\ No newline at end of file
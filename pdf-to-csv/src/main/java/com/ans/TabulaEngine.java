@@ -0,0 +1,109 @@
+package com.ans;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import technology.tabula.ObjectExtractor;
+import technology.tabula.Page;
+import technology.tabula.RectangularTextContainer;
+import technology.tabula.Table;
+import technology.tabula.extractors.BasicExtractionAlgorithm;
+import technology.tabula.extractors.SpreadsheetExtractionAlgorithm;
+
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// Motor alternativo ao de regex: o Tabula reconstrói as tabelas pelas coordenadas do texto
+// (algoritmo de planilha quando a página tem linhas de grade, de fluxo quando não tem) e as
+// colunas são localizadas pelo cabeçalho (PROCEDIMENTO, OD, AMB...). Gera as mesmas linhas
+// Código/Descrição/Tipo, uma por tipo de cobertura marcado.
+final class TabulaEngine {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Posição das colunas de interesse; -1 quando a tabela não tem a coluna
+    record Columns(int code, int description, int od, int amb) {
+        // Layout do Anexo I (PROCEDIMENTO, RN, VIGÊNCIA, OD, AMB, ...), usado até achar um cabeçalho
+        static final Columns ROL = new Columns(-1, 0, 3, 4);
+    }
+
+    private final SpreadsheetExtractionAlgorithm spreadsheet = new SpreadsheetExtractionAlgorithm();
+    private final BasicExtractionAlgorithm stream = new BasicExtractionAlgorithm();
+    private Columns columns = Columns.ROL;
+
+    // Compatível com PdfToCsv.PageRangeExtractor: cada bloco de páginas usa a sua instância
+    static List<String[]> extract(PDDocument doc, int startPage, int endPage) throws IOException {
+        TabulaEngine engine = new TabulaEngine();
+        // O ObjectExtractor não é fechado: fecharia o documento, que pertence a quem chamou
+        ObjectExtractor extractor = new ObjectExtractor(doc);
+        List<String[]> rows = new ArrayList<>();
+        for (int page = startPage; page <= endPage; page++) {
+            engine.extractPage(extractor.extract(page), rows);
+        }
+        return rows;
+    }
+
+    private void extractPage(Page page, List<String[]> rows) {
+        List<Table> tables = spreadsheet.isTabular(page) ? spreadsheet.extract(page) : stream.extract(page);
+        for (Table table : tables) {
+            // getRows() declara as células com tipo cru; o cast para <?> evita o aviso de rawtypes
+            for (List<?> cells : table.getRows()) {
+                String[] texts = new String[cells.size()];
+                for (int i = 0; i < texts.length; i++) {
+                    RectangularTextContainer<?> cell = (RectangularTextContainer<?>) cells.get(i);
+                    texts[i] = WHITESPACE.matcher(cell.getText()).replaceAll(" ").trim();
+                }
+                Columns header = header(texts);
+                if (header != null) {
+                    columns = header;
+                } else {
+                    addRows(texts, rows);
+                }
+            }
+        }
+    }
+
+    // Reconhece a linha de cabeçalho; devolve null se for uma linha de dados
+    static Columns header(String[] texts) {
+        int code = -1;
+        int description = -1;
+        int od = -1;
+        int amb = -1;
+        for (int i = 0; i < texts.length; i++) {
+            String text = normalize(texts[i]);
+            if (text.startsWith("CODIGO") && code < 0) {
+                code = i;
+            } else if ((text.equals("PROCEDIMENTO") || text.startsWith("DESCRICAO")) && description < 0) {
+                description = i;
+            } else if (text.equals("OD")) {
+                od = i;
+            } else if (text.equals("AMB")) {
+                amb = i;
+            }
+        }
+        return description >= 0 && (od >= 0 || amb >= 0) ? new Columns(code, description, od, amb) : null;
+    }
+
+    private void addRows(String[] texts, List<String[]> rows) {
+        String description = cell(texts, columns.description());
+        if (description.isEmpty()) {
+            return;
+        }
+        String code = cell(texts, columns.code());
+        if (cell(texts, columns.od()).equals("OD")) {
+            rows.add(new String[]{code, description, "Odontológico"});
+        }
+        if (cell(texts, columns.amb()).equals("AMB")) {
+            rows.add(new String[]{code, description, "Ambulatorial"});
+        }
+    }
+
+    private static String cell(String[] texts, int index) {
+        return index >= 0 && index < texts.length ? texts[index] : "";
+    }
+
+    // Maiúsculas e sem acentos, para comparar cabeçalhos
+    private static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "").toUpperCase();
+    }
+}
@@ -0,0 +1,75 @@
+package com.ans;
+
+import net.lingala.zip4j.model.ZipParameters;
+import net.lingala.zip4j.model.enums.CompressionLevel;
+import net.lingala.zip4j.model.enums.CompressionMethod;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.zip.Deflater;
+
+// Escolhe a compressão de cada entrada do ZIP a partir de amostras do conteúdo (início, meio
+// e fim): PDFs já comprimidos internamente vão como STORE, e o nível do DEFLATE acompanha o
+// quanto a amostra encolheu. Evita gastar CPU deflacionando o que não diminui.
+// Mesma política do web-scraping (os módulos não compartilham código).
+final class ZipCompression {
+    private static final int SLICE_SIZE = 16 * 1024;
+    private static final int SLICES = 3;
+    // Amostras que não encolhem ao menos 10% são guardadas sem compressão
+    private static final double STORE_RATIO = 0.9;
+    // Entre isso e STORE_RATIO o ganho é pequeno: usa um nível rápido
+    private static final double FAST_RATIO = 0.6;
+
+    private ZipCompression() {
+    }
+
+    static ZipParameters parametersFor(File file) throws IOException {
+        long length = file.length();
+        byte[] sample = new byte[(int) Math.min(length, (long) SLICE_SIZE * SLICES)];
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            if (sample.length == length) {
+                in.readFully(sample);
+            } else {
+                for (int i = 0; i < SLICES; i++) {
+                    in.seek((length - SLICE_SIZE) * i / (SLICES - 1));
+                    in.readFully(sample, i * SLICE_SIZE, SLICE_SIZE);
+                }
+            }
+        }
+        return parameters(file.getName(), length, ratio(sample));
+    }
+
+    private static ZipParameters parameters(String name, long size, double ratio) {
+        ZipParameters parameters = new ZipParameters();
+        parameters.setFileNameInZip(name);
+        if (ratio >= STORE_RATIO) {
+            parameters.setCompressionMethod(CompressionMethod.STORE);
+            parameters.setEntrySize(size); // Exigido pelo ZipOutputStream para entradas STORE
+        } else {
+            parameters.setCompressionMethod(CompressionMethod.DEFLATE);
+            parameters.setCompressionLevel(ratio >= FAST_RATIO ? CompressionLevel.FASTEST : CompressionLevel.NORMAL);
+        }
+        return parameters;
+    }
+
+    // Tamanho comprimido / original da amostra, com o nível mais rápido
+    static double ratio(byte[] sample) {
+        if (sample.length == 0) {
+            return 1;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(sample);
+            deflater.finish();
+            byte[] out = new byte[SLICE_SIZE];
+            long compressed = 0;
+            while (!deflater.finished()) {
+                compressed += deflater.deflate(out);
+            }
+            return (double) compressed / sample.length;
+        } finally {
+            deflater.end();
+        }
+    }
+}
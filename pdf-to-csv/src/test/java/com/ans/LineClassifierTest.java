@@ -0,0 +1,28 @@
+package com.ans;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+/**
+ * Classificação das linhas do PDF pelas três estratégias.
+ */
+public class LineClassifierTest extends TestCase
+{
+    public void testPicksStrictestMatchingStrategyPerLine()
+    {
+        LineClassifier classifier = new LineClassifier();
+
+        assertEquals( Arrays.asList( "10101012", "CONSULTA EM CONSULTÓRIO", "Ambulatorial" ),
+                Arrays.asList( classifier.classify( "  10101012 CONSULTA EM CONSULTÓRIO AMB " ) ) );
+        assertEquals( Arrays.asList( "81000014", "RADIOGRAFIA", "Odontológico" ),
+                Arrays.asList( classifier.classify( "81000014 RADIOGRAFIA OD AMB HCO" ) ) );
+        assertEquals( Arrays.asList( "TUSS 22", "TOMOGRAFIA", "Ambulatorial" ),
+                Arrays.asList( classifier.classify( "TUSS 22  TOMOGRAFIA\tAMB  2023" ) ) );
+        assertNull( classifier.classify( "ANEXO I - LISTA DE PROCEDIMENTOS" ) );
+
+        assertEquals( 1, classifier.hits( LineClassifier.STANDARD ) );
+        assertEquals( 1, classifier.hits( LineClassifier.ADVANCED ) );
+        assertEquals( 1, classifier.hits( LineClassifier.FALLBACK ) );
+    }
+}
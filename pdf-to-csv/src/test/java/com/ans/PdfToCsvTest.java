@@ -0,0 +1,75 @@
+package com.ans;
+
+import junit.framework.TestCase;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Extração de texto do PDF em blocos de páginas.
+ */
+public class PdfToCsvTest extends TestCase
+{
+    private static File pdf( int pages ) throws Exception
+    {
+        File file = File.createTempFile( "anexo", ".pdf" );
+        file.deleteOnExit();
+        try ( PDDocument doc = new PDDocument() )
+        {
+            for ( int page = 1; page <= pages; page++ )
+            {
+                PDPage pdPage = new PDPage();
+                doc.addPage( pdPage );
+                try ( PDPageContentStream content = new PDPageContentStream( doc, pdPage ) )
+                {
+                    content.beginText();
+                    content.setFont( PDType1Font.HELVETICA, 10 );
+                    content.newLineAtOffset( 50, 700 );
+                    for ( int line = 0; line < 5; line++ )
+                    {
+                        content.showText( ( 10100000 + page * 10 + line ) + "  PROCEDIMENTO " + page + "  OD" );
+                        content.newLineAtOffset( 0, -14 );
+                    }
+                    content.endText();
+                }
+            }
+            doc.save( file );
+        }
+        return file;
+    }
+
+    public void testParallelExtractionMatchesSerial() throws Exception
+    {
+        File file = pdf( 37 );
+        String serial = PdfToCsv.extractText( file, 1 );
+        assertTrue( serial.contains( "PROCEDIMENTO 37" ) );
+        assertEquals( serial, PdfToCsv.extractText( file, 4 ) );
+    }
+
+    public void testStreamingWritesSameRowsAndDebugText() throws Exception
+    {
+        File file = pdf( 20 );
+        File csv = File.createTempFile( "procedimentos", ".csv" );
+        File debug = File.createTempFile( "pdf_debug", ".txt" );
+        csv.deleteOnExit();
+        debug.deleteOnExit();
+
+        String text = PdfToCsv.extractText( file, 1 );
+        List<String[]> expected = PdfToCsv.classifyLines( text, new LineClassifier() );
+        assertEquals( 100, expected.size() );
+        assertEquals( expected.size(), PdfToCsv.convertStreaming( file, csv.getPath(), debug.getPath() ) );
+
+        List<String> lines = Files.readAllLines( csv.toPath(), Charset.defaultCharset() );
+        assertEquals( expected.size() + 1, lines.size() );
+        String[] last = expected.get( 99 );
+        assertTrue( lines.get( 100 ).startsWith( "\"" + last[0] + "\",\"" + last[1] + "\"," ) );
+        assertEquals( text, Files.readString( debug.toPath() ) );
+    }
+}
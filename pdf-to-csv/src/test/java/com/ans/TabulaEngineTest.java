@@ -0,0 +1,74 @@
+package com.ans;
+
+import junit.framework.TestCase;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Extração de tabelas pelo Tabula.
+ */
+public class TabulaEngineTest extends TestCase
+{
+    private static final float[] COLUMNS = { 40, 300, 360, 430, 470 };
+
+    private static void row( PDPageContentStream content, float y, String... cells ) throws Exception
+    {
+        for ( int i = 0; i < cells.length; i++ )
+        {
+            content.beginText();
+            content.setFont( PDType1Font.HELVETICA, 9 );
+            content.newLineAtOffset( COLUMNS[i], y );
+            content.showText( cells[i] );
+            content.endText();
+        }
+    }
+
+    private static File pdf( int pages ) throws Exception
+    {
+        File file = File.createTempFile( "anexo", ".pdf" );
+        file.deleteOnExit();
+        try ( PDDocument doc = new PDDocument() )
+        {
+            for ( int page = 1; page <= pages; page++ )
+            {
+                PDPage pdPage = new PDPage();
+                doc.addPage( pdPage );
+                try ( PDPageContentStream content = new PDPageContentStream( doc, pdPage ) )
+                {
+                    row( content, 700, "PROCEDIMENTO", "RN", "VIGÊNCIA", "OD", "AMB" );
+                    row( content, 680, "CONSULTA ODONTOLÓGICA " + page, "", "", "OD", "" );
+                    row( content, 665, "CONSULTA MÉDICA " + page, "", "", "", "AMB" );
+                    row( content, 650, "RADIOGRAFIA " + page, "541/2022", "01/08/2022", "OD", "AMB" );
+                }
+            }
+            doc.save( file );
+        }
+        return file;
+    }
+
+    public void testHeaderRecognition()
+    {
+        TabulaEngine.Columns columns = TabulaEngine.header( new String[]{ "Código", "Descrição", "OD", "AMB" } );
+        assertEquals( new TabulaEngine.Columns( 0, 1, 2, 3 ), columns );
+        assertNull( TabulaEngine.header( new String[]{ "CONSULTA", "OD", "" } ) );
+    }
+
+    public void testExtractsOneRowPerCoverageType() throws Exception
+    {
+        List<String[]> rows = PdfToCsv.extractRows( pdf( 10 ), PdfToCsv.ENGINE_TABULA, 2 );
+
+        assertEquals( 40, rows.size() );
+        assertEquals( "CONSULTA ODONTOLÓGICA 1", rows.get( 0 )[1] );
+        assertEquals( "Odontológico", rows.get( 0 )[2] );
+        assertEquals( "CONSULTA MÉDICA 1", rows.get( 1 )[1] );
+        assertEquals( "Ambulatorial", rows.get( 1 )[2] );
+        assertEquals( "RADIOGRAFIA 10", rows.get( 39 )[1] );
+        assertEquals( "Ambulatorial", rows.get( 39 )[2] );
+    }
+}
@@ -21,14 +21,38 @@ CREATE TABLE IF NOT EXISTS operators (
     created_at DATE
     );
 
--- Tabela de Demonstrações Financeiras
+-- Tabela de Demonstrações Financeiras, particionada por trimestre de report_date.
+-- As partições (financial_reports_<ano>_q<n>) são criadas e trocadas pelo ANSDataImporter
+-- com ATTACH/DETACH PARTITION: recarregar um trimestre não gera DELETE nem tuplas mortas.
 CREATE TABLE IF NOT EXISTS financial_reports (
-                                                 id SERIAL PRIMARY KEY,
-                                                 ans_registration VARCHAR(20),
-    report_date DATE,
-    report_type VARCHAR(100),
-    total_revenue NUMERIC(15, 2),
-    total_expenses NUMERIC(15, 2),
-    balance NUMERIC(15, 2),
-    FOREIGN KEY (ans_registration) REFERENCES operators(ans_registration)
-    );
\ No newline at end of file
+    report_date DATE NOT NULL,
+    operator_code VARCHAR(20),
+    account VARCHAR(20),
+    description VARCHAR(255),
+    is_consolidated INTEGER,
+    balance NUMERIC(18, 2)
+    ) PARTITION BY RANGE (report_date);
+
+-- Criado em cada staging depois da carga (UNLOGGED, sem índices) e adotado pela partição no ATTACH
+CREATE INDEX IF NOT EXISTS financial_reports_operator_idx ON financial_reports (operator_code, report_date);
+
+-- Saldos trimestrais por operadora e conta sintética (até 4 dígitos), mantidos pelo
+-- ANSDataImporter durante a carga e substituídos junto com as partições do trimestre
+CREATE TABLE IF NOT EXISTS financial_quarterly_rollup (
+    quarter_start DATE NOT NULL,
+    operator_code VARCHAR(20) NOT NULL,
+    account VARCHAR(20) NOT NULL,
+    description VARCHAR(255),
+    balance NUMERIC(18, 2) NOT NULL,
+    PRIMARY KEY (quarter_start, account, operator_code)
+    );
+
+-- Controle de importação incremental: um registro por arquivo de origem já carregado
+CREATE TABLE IF NOT EXISTS import_manifest (
+    source_file VARCHAR(255) PRIMARY KEY,
+    file_size BIGINT NOT NULL,
+    modified_at TIMESTAMP NOT NULL,
+    sha256 CHAR(64) NOT NULL,
+    row_count BIGINT NOT NULL,
+    imported_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+    );
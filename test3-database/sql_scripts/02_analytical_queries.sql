@@ -1,13 +1,21 @@
+-- Despesas = conta de eventos/sinistros de assistência médico-hospitalar. Só entram as contas sintéticas
+-- (até 4 dígitos): as analíticas abaixo delas repetem a descrição e já estão somadas na conta-mãe,
+-- então contá-las duplicaria o total. Os filtros de report_date cobrem trimestres completos, para que
+-- o planejador descarte as partições fora do período.
+
 -- Consulta 1: Top 10 operadoras com maiores despesas no último trimestre
 SELECT
     o.legal_name,
-    SUM(f.total_expenses) AS total_expenses
+    SUM(f.balance) AS total_expenses
 FROM
     financial_reports f
         JOIN
-    operators o ON f.ans_registration = o.ans_registration
+    operators o ON f.operator_code = o.ans_registration
 WHERE
-    f.report_date >= CURRENT_DATE - INTERVAL '3 months'
+    f.description ILIKE 'EVENTOS/ SINISTROS CONHECIDOS OU AVISADOS%MEDICO HOSPITALAR%'
+  AND length(f.account) <= 4
+  AND f.report_date >= (date_trunc('quarter', CURRENT_DATE) - INTERVAL '3 months')::date
+  AND f.report_date < date_trunc('quarter', CURRENT_DATE)::date
 GROUP BY
     o.legal_name
 ORDER BY
@@ -17,16 +25,61 @@ ORDER BY
 -- Consulta 2: Top 10 operadoras com maiores despesas no último ano
 SELECT
     o.legal_name,
-    SUM(f.total_expenses) AS total_expenses,
-    (SUM(f.total_expenses) - LAG(SUM(f.total_expenses)) OVER (ORDER BY SUM(f.total_expenses) DESC)) AS difference
+    SUM(f.balance) AS total_expenses,
+    (SUM(f.balance) - LAG(SUM(f.balance)) OVER (ORDER BY SUM(f.balance) DESC)) AS difference
 FROM
     financial_reports f
         JOIN
-    operators o ON f.ans_registration = o.ans_registration
+    operators o ON f.operator_code = o.ans_registration
+WHERE
+    f.description ILIKE 'EVENTOS/ SINISTROS CONHECIDOS OU AVISADOS%MEDICO HOSPITALAR%'
+  AND length(f.account) <= 4
+  AND f.report_date >= (date_trunc('quarter', CURRENT_DATE) - INTERVAL '1 year')::date
+  AND f.report_date < date_trunc('quarter', CURRENT_DATE)::date
+GROUP BY
+    o.legal_name
+ORDER BY
+    total_expenses DESC
+    LIMIT 10;
+
+-- Versões sobre financial_quarterly_rollup, para os painéis: leem só os totais por trimestre,
+-- sem varrer financial_reports. O rollup guarda apenas contas com até 4 dígitos; o mesmo filtro
+-- explícito das consultas acima garante que as duas versões somam as mesmas linhas.
+
+-- Consulta 1 (rollup): Top 10 operadoras com maiores despesas no último trimestre
+SELECT
+    o.legal_name,
+    SUM(r.balance) AS total_expenses
+FROM
+    financial_quarterly_rollup r
+        JOIN
+    operators o ON r.operator_code = o.ans_registration
 WHERE
-    f.report_date >= CURRENT_DATE - INTERVAL '1 year'
+    r.description ILIKE 'EVENTOS/ SINISTROS CONHECIDOS OU AVISADOS%MEDICO HOSPITALAR%'
+  AND length(r.account) <= 4
+  AND r.quarter_start = (date_trunc('quarter', CURRENT_DATE) - INTERVAL '3 months')::date
 GROUP BY
     o.legal_name
 ORDER BY
     total_expenses DESC
-    LIMIT 10;
\ No newline at end of file
+    LIMIT 10;
+
+-- Consulta 2 (rollup): Top 10 operadoras com maiores despesas no último ano
+SELECT
+    o.legal_name,
+    SUM(r.balance) AS total_expenses,
+    (SUM(r.balance) - LAG(SUM(r.balance)) OVER (ORDER BY SUM(r.balance) DESC)) AS difference
+FROM
+    financial_quarterly_rollup r
+        JOIN
+    operators o ON r.operator_code = o.ans_registration
+WHERE
+    r.description ILIKE 'EVENTOS/ SINISTROS CONHECIDOS OU AVISADOS%MEDICO HOSPITALAR%'
+  AND length(r.account) <= 4
+  AND r.quarter_start >= (date_trunc('quarter', CURRENT_DATE) - INTERVAL '1 year')::date
+  AND r.quarter_start < date_trunc('quarter', CURRENT_DATE)::date
+GROUP BY
+    o.legal_name
+ORDER BY
+    total_expenses DESC
+    LIMIT 10;
@@ -0,0 +1,125 @@
+package com.ans;
+
+import com.opencsv.CSVReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.temporal.IsoFields;
+import java.util.*;
+import java.util.function.Predicate;
+
+// Responde às consultas de 02_analytical_queries.sql direto dos CSVs extraídos, sem PostgreSQL,
+// usando o ColumnarStore. Exemplos:
+//   ANSAnalytics --period=quarter --reference=2024-10-01
+//   ANSAnalytics --from=2024-01-01 --to=2024-07-01 --account=41% --top=20
+public class ANSAnalytics {
+    // Mesmo filtro das consultas SQL; sem --account só entram as contas sintéticas (até 4 dígitos),
+    // como no length(account) <= 4 delas, para não somar as analíticas junto com a conta-mãe
+    static final String EXPENSES_PATTERN = "EVENTOS/ SINISTROS CONHECIDOS OU AVISADOS%MEDICO HOSPITALAR%";
+    private static final String OPERATORS_FILE = "src/main/resources/data/active_operators.csv";
+
+    public static void main(String[] args) {
+        Map<String, String> options = options(args);
+        try {
+            LocalDate reference = LocalDate.parse(options.getOrDefault("reference", LocalDate.now().toString()));
+            LocalDate to = options.containsKey("to") ? LocalDate.parse(options.get("to")) : quarterStart(reference);
+            LocalDate from = options.containsKey("from") ? LocalDate.parse(options.get("from"))
+                    : to.minusMonths("year".equals(options.getOrDefault("period", "quarter")) ? 12 : 3);
+            int top = Integer.parseInt(options.getOrDefault("top", "10"));
+            Predicate<String> account = options.containsKey("account") ? ColumnarStore.like(options.get("account"))
+                    : QuarterlyRollup::isSynthetic;
+            Predicate<String> description = ColumnarStore.like(options.getOrDefault("description", EXPENSES_PATTERN));
+
+            long started = System.nanoTime();
+            ColumnarStore store = ColumnarStore.load(files(options.get("years")));
+            System.out.printf("📥 %d linhas carregadas em %d ms (%d operadoras, %d contas)%n", store.rowCount(),
+                    (System.nanoTime() - started) / 1_000_000, store.operatorCount(), store.accountCount());
+
+            started = System.nanoTime();
+            List<ColumnarStore.OperatorTotal> result = store.topOperators(from, to, account, description, top);
+            long micros = (System.nanoTime() - started) / 1_000;
+
+            System.out.println("\n🏆 Top " + top + " operadoras de " + from + " a " + to.minusDays(1) +
+                    " (" + micros + " µs)");
+            if (result.isEmpty()) {
+                System.out.println("⚠️ Nenhuma linha no período; ajuste --reference ou --from/--to");
+                return;
+            }
+            Map<String, String> names = operatorNames();
+            ColumnarStore.OperatorTotal previous = null;
+            int position = 1;
+            for (ColumnarStore.OperatorTotal total : result) {
+                String difference = previous == null ? "" : "  Δ " + total.balance().subtract(previous.balance());
+                System.out.printf("%2d. %s (%s)  %s%s%n", position++,
+                        names.getOrDefault(total.operatorCode(), "?"), total.operatorCode(), total.balance(), difference);
+                previous = total;
+            }
+        } catch (Exception e) {
+            System.err.println("\n❌ Erro na consulta:");
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // Argumentos no formato --nome=valor
+    static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg + " (use --nome=valor)");
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    static LocalDate quarterStart(LocalDate date) {
+        return date.with(IsoFields.DAY_OF_QUARTER, 1);
+    }
+
+    // CSVs trimestrais dos anos pedidos (padrão: os mesmos anos do ANSDataImporter)
+    private static File[] files(String years) {
+        List<Integer> selected = new ArrayList<>();
+        if (years == null) {
+            int currentYear = Year.now().getValue();
+            selected.add(currentYear - 1);
+            selected.add(currentYear);
+        } else {
+            for (String year : years.split(",")) {
+                selected.add(Integer.parseInt(year.trim()));
+            }
+        }
+
+        List<File> files = new ArrayList<>();
+        for (int year : selected) {
+            files.addAll(Arrays.asList(ANSDataImporter.findQuarterlyFiles(year)));
+        }
+        if (files.isEmpty()) {
+            throw new IllegalStateException("Nenhum CSV encontrado para " + selected + " (rode o download antes)");
+        }
+        return files.toArray(new File[0]);
+    }
+
+    // Razão social por registro ANS, do CSV de operadoras ativas (se já baixado)
+    private static Map<String, String> operatorNames() throws Exception {
+        Map<String, String> names = new HashMap<>();
+        if (!new File(OPERATORS_FILE).exists()) {
+            return names;
+        }
+        try (CSVReader reader = QuarterlyCsvReader.openCsv(new BufferedReader(new FileReader(OPERATORS_FILE)))) {
+            reader.readNext(); // Pula cabeçalho
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                if (line.length >= 19) {
+                    Object[] values = ANSDataImporter.parseOperatorRow(line);
+                    names.put((String) values[0], (String) values[2]);
+                }
+            }
+        }
+        return names;
+    }
+}
@@ -4,50 +4,121 @@ import com.opencsv.CSVReader;
 import com.opencsv.CSVReaderBuilder;
 import com.opencsv.CSVParser;
 import com.opencsv.CSVParserBuilder;
-import com.opencsv.CSVWriter;
-import com.opencsv.exceptions.CsvValidationException;
 
 import java.io.*;
 import java.math.BigDecimal;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.sql.*;
-import java.sql.Date;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.time.Year;
 import java.util.*;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public class ANSDataImporter {
     private static final String DB_URL = "jdbc:postgresql://localhost:5432/teste3_database";
     private static final String USER = "postgres";
     private static final String PASS = "password";
     private static final int MAX_RETRIES = 3;
-    private static final int BATCH_SIZE = 1000;
+    // Tamanho inicial do lote; com -Dans.batch.adaptive=true (padrão) o INSERT ajusta o tamanho entre
+    // ans.batch.min e ans.batch.max para que cada executeBatch leve cerca de ans.batch.target.ms
+    private static final int BATCH_SIZE = Integer.getInteger("ans.batch.size", 1000);
+    private static final boolean ADAPTIVE_BATCH =
+            Boolean.parseBoolean(System.getProperty("ans.batch.adaptive", "true"));
+    private static final int BATCH_MIN = Integer.getInteger("ans.batch.min", 100);
+    private static final int BATCH_MAX = Integer.getInteger("ans.batch.max", 20_000);
+    private static final long BATCH_TARGET_NANOS = Long.getLong("ans.batch.target.ms", 50) * 1_000_000;
+    // O pgjdbc reescreve os lotes do INSERT em INSERTs de várias linhas (-Dans.batch.rewrite=false desliga)
+    private static final boolean REWRITE_BATCHES =
+            Boolean.parseBoolean(System.getProperty("ans.batch.rewrite", "true"));
+    private static final LoaderMode LOADER_MODE =
+            LoaderMode.fromKey(System.getProperty("ans.loader", "insert"));
+    // Parser e gravação em threads separadas, ligadas por uma fila de lotes (-Dans.pipeline=false desliga)
+    private static final boolean PIPELINE = Boolean.parseBoolean(System.getProperty("ans.pipeline", "true"));
+    // Lotes que podem aguardar na fila antes de o parser esperar pelo banco
+    private static final int PIPELINE_DEPTH = Integer.getInteger("ans.pipeline.depth", 4);
+    // Com mais de 1 worker, os CSVs trimestrais são importados em paralelo (-Dans.workers=N)
+    private static final int WORKERS = Integer.getInteger("ans.workers", 1);
+    // Grava financial_reports_<ano>_consolidated.csv como saída secundária (-Dans.consolidated=true)
+    private static final boolean WRITE_CONSOLIDATED = Boolean.getBoolean("ans.consolidated");
+    // Ignora o import_manifest e recarrega tudo (-Dans.full=true)
+    private static final boolean FULL_RELOAD = Boolean.getBoolean("ans.full");
+    // Lê os CSVs direto dos ZIPs baixados, sem extrair nada em disco (-Dans.stream=true)
+    private static final boolean STREAM_ZIPS = Boolean.getBoolean("ans.stream");
+    // Parser das demonstrações: opencsv (padrão), o FinancialCsvParser dedicado (-Dans.parser=fast) ou
+    // o MappedCsvReader, que divide cada arquivo entre vários núcleos (-Dans.parser=mapped)
+    private static final String PARSER = System.getProperty("ans.parser", "opencsv");
+    private static final boolean FAST_PARSER = switch (PARSER) {
+        case "opencsv" -> false;
+        case "fast", "mapped" -> true;
+        default -> throw new IllegalArgumentException("Parser desconhecido: " + PARSER +
+                " (use opencsv, fast ou mapped)");
+    };
+    private static final boolean MAPPED_PARSER = PARSER.equals("mapped");
+    // Threads por arquivo no modo mapped e se as linhas seguem a ordem do arquivo (-Dans.parser.ordered=false)
+    private static final int PARSER_THREADS =
+            Integer.getInteger("ans.parser.threads", Runtime.getRuntime().availableProcessors());
+    private static final boolean PARSER_ORDERED =
+            Boolean.parseBoolean(System.getProperty("ans.parser.ordered", "true"));
+    private static final Charset CSV_CHARSET = Charset.forName(
+            System.getProperty("ans.csv.charset", Charset.defaultCharset().name()));
+    private static final TableSpec OPERATORS_DELTA = TableSpec.OPERATORS.withName("operators_delta");
+    private static final Pattern QUARTER_PATTERN = Pattern.compile("_(\\d{4})_(\\d)T\\.csv$");
 
     public static void main(String[] args) {
         System.out.println("🏥 Iniciando importação de dados da ANS");
+        System.out.println("⚙️ Modo de carga: " + LOADER_MODE + ", parser: " + PARSER +
+                (PIPELINE ? ", pipeline" : ""));
 
-        // Etapa 1: Download e preparação dos arquivos
-        FileDownloader.downloadRequiredFiles();
+        // Etapa 1: Download e preparação dos arquivos (no modo stream, só as operadoras)
+        FileDownloader.downloadRequiredFiles(!STREAM_ZIPS);
 
         // Etapa 2: Importação para o PostgreSQL
-        try (Connection conn = DriverManager.getConnection(DB_URL, USER, PASS)) {
+        try (Connection conn = DriverManager.getConnection(jdbcUrl(), USER, PASS);
+             ConnectionPool pool = WORKERS > 1 ? new ConnectionPool(jdbcUrl(), USER, PASS, WORKERS) : null) {
             int totalImported = 0;
             int currentYear = Year.now().getValue();
+            ImportManifest manifest = new ImportManifest(conn, FULL_RELOAD);
 
             // Importa operadoras ativas com tratamento especial
             totalImported += importOperators(
                     conn,
-                    "src/main/resources/data/active_operators.csv"
+                    "src/main/resources/data/active_operators.csv",
+                    manifest
             );
 
             // Importa demonstrações contábeis
             for (int year = currentYear - 1; year <= currentYear; year++) {
-                String consolidatedFile = "src/main/resources/data/financial_reports_" + year + "_consolidated.csv";
-                if (consolidateFinancialData(year, consolidatedFile)) {
-                    totalImported += importFinancialReports(conn, consolidatedFile);
+                if (STREAM_ZIPS) {
+                    totalImported += importFinancialReportsFromZips(conn, year);
+                    continue;
+                }
+
+                File[] files = findQuarterlyFiles(year);
+                if (files.length == 0) {
+                    System.err.println("⚠️ Nenhum arquivo encontrado para " + year);
+                    continue;
+                }
+
+                List<File> changed = manifest.changedFiles(files);
+                if (changed.isEmpty()) {
+                    System.out.println("\n✔️ Demonstrações de " + year + " sem alterações");
+                    continue;
+                }
+
+                // Só os trimestres alterados são recarregados; sem trimestre no nome, recarrega o ano
+                boolean reloadYear = WRITE_CONSOLIDATED || changed.stream().anyMatch(f -> quarterOf(f) == 0);
+                File[] toLoad = reloadYear ? files : changed.toArray(new File[0]);
+
+                if (pool != null) {
+                    totalImported += ParallelImporter.importYear(pool, year, toLoad, reloadYear, manifest);
+                } else {
+                    String consolidatedFile = WRITE_CONSOLIDATED
+                            ? "src/main/resources/data/financial_reports_" + year + "_consolidated.csv"
+                            : null;
+                    totalImported += importFinancialReports(conn, year, toLoad, reloadYear, consolidatedFile, manifest);
                 }
             }
 
@@ -55,65 +126,61 @@ public class ANSDataImporter {
             System.out.println("\n📊 Resultado da Importação:");
             System.out.println("- Total de registros: " + totalImported);
             System.out.println("- Tabelas atualizadas: operators, financial_reports");
+            reportMetrics();
 
         } catch (Exception e) {
             System.err.println("\n❌ Erro durante a importação:");
             e.printStackTrace();
+            reportMetrics(); // Mostra até onde cada etapa chegou
             System.exit(1);
         }
     }
 
-    // Método renomeado de consolidateYearData para consolidateFinancialData
-    private static boolean consolidateFinancialData(int year, String outputFile) throws IOException, CsvValidationException {
-        System.out.println("\n🧩 Consolidando dados para " + year);
+    private static void reportMetrics() {
+        ImportMetrics.printSummary();
+        try {
+            ImportMetrics.writeJsonIfRequested();
+        } catch (IOException e) {
+            System.err.println("⚠️ Erro ao gravar as métricas: " + e.getMessage());
+        }
+    }
 
+    // Lista os CSVs trimestrais extraídos para o ano, do mais recente para o mais antigo
+    static File[] findQuarterlyFiles(int year) {
         File dir = new File("src/main/resources/data/");
         File[] files = dir.listFiles((d, name) ->
                 name.matches(".*_" + year + "(_\\dT)?.*\\.csv") &&
-                        !name.contains("consolidated") &&
-                        !name.equals(outputFile)
+                        !name.contains("consolidated")
         );
 
-        if (files == null || files.length == 0) {
-            System.err.println("⚠️ Nenhum arquivo encontrado para " + year);
-            return false;
+        if (files == null) {
+            return new File[0];
         }
 
         // Ordena os arquivos por data de modificação (do mais recente)
         Arrays.sort(files, (f1, f2) -> Long.compare(f2.lastModified(), f1.lastModified()));
+        return files;
+    }
 
-        try (CSVWriter writer = new CSVWriter(new FileWriter(outputFile))) {
-            // Escreve cabeçalho (usa o primeiro arquivo como referência)
-            try (CSVReader reader = new CSVReader(new FileReader(files[0]))) {
-                writer.writeNext(reader.readNext());
-            }
-
-            // Consolida todos os arquivos
-            for (File file : files) {
-                System.out.println("➕ Adicionando: " + file.getName());
-                try (CSVReader reader = new CSVReader(new FileReader(file))) {
-                    reader.readNext(); // Pula cabeçalho
-                    String[] nextLine;
-                    while ((nextLine = reader.readNext()) != null) {
-                        writer.writeNext(nextLine);
-                    }
-                }
-            }
-        }
-
-        System.out.println("✅ Dados consolidados em: " + outputFile);
-        return true;
+    // Trimestre (1 a 4) indicado no nome do CSV extraído (ex.: *_2024_3T.csv), ou 0
+    static int quarterOf(File file) {
+        Matcher matcher = QUARTER_PATTERN.matcher(file.getName());
+        return matcher.find() ? Integer.parseInt(matcher.group(2)) : 0;
     }
 
-    private static int importOperators(Connection conn, String filePath) throws Exception {
+    // Operadoras entram numa tabela temporária e são aplicadas como delta (ON CONFLICT DO UPDATE),
+    // alterando apenas as linhas novas ou diferentes
+    private static int importOperators(Connection conn, String filePath, ImportManifest manifest) throws Exception {
         System.out.println("\n📤 Processando operadoras ativas: " + filePath);
 
-        // Primeiro limpa a tabela para evitar duplicatas
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute("TRUNCATE TABLE operators CASCADE");
+        File file = new File(filePath);
+        if (!manifest.hasChanged(file)) {
+            System.out.println("✔️ Operadoras sem alterações desde o último import");
+            return 0;
         }
 
         int recordCount = 0;
+        int changedCount = 0;
         int retryCount = 0;
 
         // Configuração do parser CSV
@@ -123,163 +190,344 @@ public class ANSDataImporter {
                 .build();
 
         while (retryCount < MAX_RETRIES) {
+            conn.setAutoCommit(false);
             try (CSVReader reader = new CSVReaderBuilder(new FileReader(filePath))
                     .withCSVParser(parser)
                     .withSkipLines(1) // Pular cabeçalho
-                    .build()) {
+                    .build();
+                 Statement stmt = conn.createStatement()) {
 
-                String insertSQL = "INSERT INTO operators (ans_registration, cnpj, legal_name, trade_name, " +
-                        "modality, address, number, complement, neighborhood, city, state, " +
-                        "zip_code, area_code, phone, fax, email, representative, " +
-                        "representative_role, created_at) " +
-                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                stmt.execute("CREATE TEMP TABLE IF NOT EXISTS " + OPERATORS_DELTA.name() +
+                        " (LIKE operators INCLUDING DEFAULTS)");
+                stmt.execute("TRUNCATE " + OPERATORS_DELTA.name());
 
-                try (PreparedStatement pstmt = conn.prepareStatement(insertSQL)) {
+                ImportMetrics.LoadEvent event = new ImportMetrics.LoadEvent();
+                int rejected = 0;
+                try (RowLoader loader = LOADER_MODE.open(conn, OPERATORS_DELTA, batchController())) {
                     String[] nextLine;
                     while ((nextLine = reader.readNext()) != null) {
                         if (nextLine.length < 19) {
                             System.err.println("⚠️ Linha ignorada (colunas insuficientes): " + Arrays.toString(nextLine));
+                            rejected++;
                             continue;
                         }
 
                         try {
-                            // Define cada parâmetro individualmente
-                            for (int i = 0; i < nextLine.length; i++) {
-                                String value = nextLine[i].replace("\"", "").trim();
-                                pstmt.setString(i + 1, value.isEmpty() ? null : value);
-                            }
-
-                            // Tratamento especial para o campo created_at (posição 19)
-                            String createdAtStr = nextLine[18].replace("\"", "").trim(); // Pega a data do CSV
-                            if (!createdAtStr.isEmpty()) {
-                                try {
-                                    SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-                                    java.util.Date parsedDate = dateFormat.parse(createdAtStr);
-                                    Date createdAt = new Date(parsedDate.getTime());
-                                    pstmt.setDate(19, createdAt);
-                                } catch (ParseException e) {
-                                    System.err.println("⚠️ Erro ao converter a data: " + createdAtStr);
-                                    pstmt.setNull(19, Types.DATE);
-                                }
-                            } else {
-                                pstmt.setNull(19, Types.DATE);
-                            }
-
-                            pstmt.addBatch();
-                            recordCount++;
-
-                            if (recordCount % BATCH_SIZE == 0) {
-                                pstmt.executeBatch();
-                                System.out.print("⏳ " + recordCount + " registros...");
-                            }
+                            loader.addRow(parseOperatorRow(nextLine));
                         } catch (ArrayIndexOutOfBoundsException e) {
                             System.err.println("⚠️ Linha com formato inválido: " + Arrays.toString(nextLine));
+                            rejected++;
                         }
                     }
-                    pstmt.executeBatch(); // Executa o lote final
+                    recordCount = (int) loader.finish(); // Envia o lote final
                 }
+                ImportMetrics.loaded(event, OPERATORS_DELTA.name(), file.getName(), recordCount, rejected);
+
+                changedCount = stmt.executeUpdate(operatorsUpsertSql());
+                manifest.record(conn, file, recordCount);
+                conn.commit();
                 break; // Sai do loop se bem-sucedido
             } catch (SQLException e) {
+                conn.rollback();
                 retryCount++;
                 if (retryCount >= MAX_RETRIES) {
                     throw e;
                 }
                 System.err.println("⚠️ Tentativa " + retryCount + " falhou. Tentando novamente...");
                 Thread.sleep(3000); // Espera 3 segundos antes de tentar novamente
+            } finally {
+                conn.setAutoCommit(true);
             }
         }
 
-        System.out.println("\n✔️ " + recordCount + " operadoras importadas");
-        return recordCount;
+        System.out.println("\n✔️ " + recordCount + " operadoras lidas, " + changedCount + " novas ou alteradas");
+        return changedCount;
     }
 
-    private static int importFinancialReports(Connection conn, String filePath) throws Exception {
-        System.out.println("\n📤 Processando demonstrações financeiras: " + filePath);
-
-        // Primeiro limpa os dados do ano correspondente
-        try (Statement stmt = conn.createStatement()) {
-            String year = extractYearFromFileName(filePath);
-            if (year != null) {
-                stmt.execute("DELETE FROM financial_reports WHERE EXTRACT(YEAR FROM report_date) = " + year);
+    // Linhas repetidas no CSV ficam com a última ocorrência; linhas idênticas não são regravadas
+    private static String operatorsUpsertSql() {
+        String[] columns = TableSpec.OPERATORS.columns();
+        StringJoiner updates = new StringJoiner(", ");
+        StringJoiner current = new StringJoiner(", ", "(", ")");
+        StringJoiner incoming = new StringJoiner(", ", "(", ")");
+        for (String column : columns) {
+            if (column.equals("ans_registration")) {
+                continue;
             }
+            updates.add(column + " = EXCLUDED." + column);
+            current.add("operators." + column);
+            incoming.add("EXCLUDED." + column);
         }
 
+        String columnList = TableSpec.OPERATORS.columnList();
+        return "INSERT INTO operators (" + columnList + ") " +
+                "SELECT DISTINCT ON (ans_registration) " + columnList + " FROM " + OPERATORS_DELTA.name() + " " +
+                "WHERE ans_registration IS NOT NULL ORDER BY ans_registration, ctid DESC " +
+                "ON CONFLICT (ans_registration) DO UPDATE SET " + updates + " " +
+                "WHERE " + current + " IS DISTINCT FROM " + incoming;
+    }
+
+    // Lê os CSVs trimestrais em fluxo contínuo, sem arquivo consolidado intermediário.
+    // Cada arquivo vai para uma staging; troca de partições e registro no manifesto
+    // acontecem na mesma transação da carga.
+    private static int importFinancialReports(Connection conn, int year, File[] files, boolean reloadYear,
+                                              String consolidatedFile, ImportManifest manifest) throws Exception {
+        System.out.println("\n📤 Processando demonstrações financeiras de " + year +
+                (reloadYear ? "" : " (" + files.length + " trimestre(s) alterado(s))"));
+
+        ImportMetrics.PeriodEvent event = new ImportMetrics.PeriodEvent();
+        Set<Integer> quarters = quartersToReplace(files, reloadYear);
         int recordCount = 0;
+        conn.setAutoCommit(false);
+        try {
+            // O CSV consolidado concatena todos os arquivos: nesse caso há uma única staging
+            File[][] groups = consolidatedFile != null ? new File[][]{files}
+                    : Arrays.stream(files).map(file -> new File[]{file}).toArray(File[][]::new);
+
+            List<String> stagings = new ArrayList<>();
+            Map<File, Long> rowsRead = new HashMap<>();
+            QuarterlyRollup rollup = new QuarterlyRollup();
+            for (File[] group : groups) {
+                String staging = FinancialPartitions.stagingName(year, stagings.size());
+                stagings.add(staging);
+                recordCount += loadFinancialFiles(conn, FinancialPartitions.createStaging(conn, staging),
+                        group, consolidatedFile, rowsRead, rollup);
+            }
 
-        // Configuração do parser CSV
-        CSVParser parser = new CSVParserBuilder()
-                .withSeparator(';')
-                .withIgnoreQuotations(true)
-                .build();
+            FinancialPartitions.publish(conn, year, quarters, stagings, rollup);
+            for (File file : files) {
+                manifest.record(conn, file, rowsRead.getOrDefault(file, 0L));
+            }
+            conn.commit();
+            ImportMetrics.period(event, year, quarters, recordCount);
+        } catch (Exception e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
 
-        try (CSVReader reader = new CSVReaderBuilder(new FileReader(filePath))
-                .withCSVParser(parser)
-                .withSkipLines(1) // Pular cabeçalho
-                .build()) {
+        if (consolidatedFile != null) {
+            System.out.println("✅ Dados consolidados em: " + consolidatedFile);
+        }
+        return recordCount;
+    }
 
-            String insertSQL = "INSERT INTO financial_reports (report_date, operator_code, account, description, " +
-                    "is_consolidated, balance) VALUES (?, ?, ?, ?, ?, ?)";
+    // Baixa os ZIPs do ano e carrega cada CSV enquanto ele é descompactado, numa única transação.
+    // Sem arquivos locais não há manifesto: o ano é sempre recarregado por completo.
+    private static int importFinancialReportsFromZips(Connection conn, int year) throws Exception {
+        System.out.println("\n📡 Importando demonstrações de " + year + " direto dos ZIPs");
+
+        ImportMetrics.PeriodEvent event = new ImportMetrics.PeriodEvent();
+        Set<Integer> quarters = quartersToReplace(new File[0], true);
+        int[] recordCount = {0};
+        List<String> stagings = new ArrayList<>();
+        QuarterlyRollup rollup = new QuarterlyRollup();
+        conn.setAutoCommit(false);
+        try {
+            boolean found = FileDownloader.streamDemonstracoes(year, (zipFilename, entryName, csv) -> {
+                System.out.println("📦 " + zipFilename + " → " + entryName);
+                String staging = FinancialPartitions.stagingName(year, stagings.size());
+                stagings.add(staging);
+                TableSpec target = FinancialPartitions.createStaging(conn, staging);
+                if (FAST_PARSER) {
+                    recordCount[0] += loadFinancialRows(conn, target, entryName,
+                            new FinancialCsvParser(new InputStreamReader(csv)), rollup);
+                    return;
+                }
+                CSVReader reader = QuarterlyCsvReader.openCsv(new BufferedReader(new InputStreamReader(csv)));
+                reader.readNext(); // Pula cabeçalho
+                recordCount[0] += loadFinancialRows(conn, target, entryName, reader::readNext, rollup);
+            });
+
+            if (!found) {
+                // Nada publicado para o ano: mantém o que já estava no banco
+                conn.rollback();
+                return 0;
+            }
+            FinancialPartitions.publish(conn, year, quarters, stagings, rollup);
+            conn.commit();
+            ImportMetrics.period(event, year, quarters, recordCount[0]);
+        } catch (Exception e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        return recordCount[0];
+    }
 
-            try (PreparedStatement pstmt = conn.prepareStatement(insertSQL)) {
-                String[] nextLine;
-                while ((nextLine = reader.readNext()) != null) {
-                    if (nextLine.length < 6) {
-                        System.err.println("⚠️ Linha ignorada: " + Arrays.toString(nextLine));
-                        continue;
-                    }
+    // Trimestres cujas partições são substituídas: o ano inteiro ou só os dos arquivos alterados
+    static Set<Integer> quartersToReplace(File[] files, boolean reloadYear) {
+        Set<Integer> quarters = new TreeSet<>();
+        if (reloadYear) {
+            Collections.addAll(quarters, 1, 2, 3, 4);
+            return quarters;
+        }
+        for (File file : files) {
+            quarters.add(quarterOf(file));
+        }
+        return quarters;
+    }
 
-                    try {
-                        // Data do relatório (usa java.sql.Date explicitamente)
-                        pstmt.setDate(1, java.sql.Date.valueOf(nextLine[0].replace("\"", "").trim()));
+    // Carrega os arquivos com o parser selecionado; rowsRead recebe as linhas lidas de cada arquivo
+    static int loadFinancialFiles(Connection conn, TableSpec target, File[] files, String consolidatedFile,
+                                  Map<File, Long> rowsRead, QuarterlyRollup rollup) throws Exception {
+        String source = Arrays.stream(files).map(File::getName).collect(Collectors.joining(", "));
+        if (MAPPED_PARSER && consolidatedFile == null) {
+            // Um arquivo por vez, cada um dividido entre PARSER_THREADS núcleos
+            int recordCount = 0;
+            for (File file : files) {
+                try (MappedCsvReader reader = new MappedCsvReader(file, PARSER_THREADS, PARSER_ORDERED, CSV_CHARSET)) {
+                    recordCount += loadFinancialRows(conn, target, file.getName(), reader, rollup);
+                    rowsRead.put(file, reader.rowsRead());
+                }
+            }
+            return recordCount;
+        }
+        if (FAST_PARSER) {
+            try (FinancialCsvParser parser = new FinancialCsvParser(files, consolidatedFile)) {
+                int recordCount = loadFinancialRows(conn, target, source, parser, rollup);
+                for (File file : files) {
+                    rowsRead.put(file, parser.rowsRead(file));
+                }
+                return recordCount;
+            }
+        }
 
-                        // Código da operadora
-                        pstmt.setString(2, nextLine[1].replace("\"", "").trim());
+        try (QuarterlyCsvReader reader = new QuarterlyCsvReader(files, consolidatedFile)) {
+            int recordCount = loadFinancialRows(conn, target, source, reader, rollup);
+            for (File file : files) {
+                rowsRead.put(file, reader.rowsRead(file));
+            }
+            return recordCount;
+        }
+    }
 
-                        // Conta
-                        pstmt.setString(3, nextLine[2].replace("\"", "").trim());
+    // reWriteBatchedInserts só ajuda o modo insert; o COPY não usa executeBatch
+    static String jdbcUrl() {
+        return LOADER_MODE == LoaderMode.INSERT && REWRITE_BATCHES ? DB_URL + "?reWriteBatchedInserts=true" : DB_URL;
+    }
 
-                        // Descrição
-                        pstmt.setString(4, nextLine[3].replace("\"", "").trim());
+    // Um controlador por loader: operadoras (19 colunas) e demonstrações (6) convergem para tamanhos diferentes
+    private static BatchSizeController batchController() {
+        return ADAPTIVE_BATCH ? new BatchSizeController(BATCH_SIZE, BATCH_MIN, BATCH_MAX, BATCH_TARGET_NANOS)
+                : BatchSizeController.fixed(BATCH_SIZE);
+    }
 
-                        // Consolidado (0 ou 1)
-                        pstmt.setInt(5, Integer.parseInt(nextLine[4].trim()));
+    // Loader das demonstrações; no modo pipeline o bind e o envio ao banco rodam em outra thread
+    private static RowLoader openFinancialLoader(Connection conn, TableSpec target) throws SQLException {
+        RowLoader loader = LOADER_MODE.open(conn, target, batchController());
+        return PIPELINE ? new PipelinedLoader(loader, target.name(), BATCH_SIZE, PIPELINE_DEPTH) : loader;
+    }
 
-                        // Ajusta o formato do valor numérico, removendo aspas e espaçamentos extras
-                        String balanceStr = nextLine[5].replace("\"", "").replace(".", "").replace(",", ".").trim();
-                        try {
-                            pstmt.setBigDecimal(6, new BigDecimal(balanceStr));
-                        } catch (NumberFormatException e) {
-                            System.err.println("⚠️ Erro ao converter o valor: " + balanceStr);
-                            pstmt.setBigDecimal(6, BigDecimal.ZERO); // Evita falha ao inserir dados
-                        }
+    // Caminho do parser dedicado: uma única FinancialRow reaproveitada do arquivo ao loader
+    static int loadFinancialRows(Connection conn, TableSpec target, String source, FinancialRowSource parser,
+                                 QuarterlyRollup rollup) throws Exception {
+        ImportMetrics.LoadEvent event = new ImportMetrics.LoadEvent();
+        int recordCount;
+        int rejected = 0;
+        FinancialRow row = new FinancialRow();
+        try (RowLoader loader = openFinancialLoader(conn, target)) {
+            while (parser.next(row)) {
+                if (row.error != null) {
+                    System.err.println("⚠️ " + row.error + ": " + parser.currentLine());
+                    rejected++;
+                    continue;
+                }
+                loader.addFinancialRow(row);
+                rollup.add(row);
+            }
+            recordCount = (int) loader.finish(); // Envia o lote final
+        }
 
+        ImportMetrics.loaded(event, target.name(), source, recordCount, rejected);
+        System.out.println("\n✔️ " + recordCount + " demonstrações financeiras importadas");
+        return recordCount;
+    }
 
-                        pstmt.addBatch();
-                        recordCount++;
+    static int loadFinancialRows(Connection conn, TableSpec target, String source, RowSource reader,
+                                 QuarterlyRollup rollup) throws Exception {
+        ImportMetrics.LoadEvent event = new ImportMetrics.LoadEvent();
+        int recordCount;
+        int rejected = 0;
+        try (RowLoader loader = openFinancialLoader(conn, target)) {
+            String[] nextLine;
+            while ((nextLine = reader.readNext()) != null) {
+                if (nextLine.length < 6) {
+                    System.err.println("⚠️ Linha ignorada: " + Arrays.toString(nextLine));
+                    rejected++;
+                    continue;
+                }
 
-                        if (recordCount % BATCH_SIZE == 0) {
-                            pstmt.executeBatch();
-                            System.out.print("⏳ " + recordCount + " registros...");
-                        }
-                    } catch (Exception e) {
-                        System.err.println("⚠️ Erro ao processar linha: " + Arrays.toString(nextLine));
-                        e.printStackTrace();
-                    }
+                // Linhas malformadas são descartadas; falhas de gravação interrompem o arquivo
+                Object[] values;
+                try {
+                    values = parseFinancialRow(nextLine);
+                } catch (RuntimeException e) {
+                    System.err.println("⚠️ Erro ao processar linha: " + Arrays.toString(nextLine));
+                    e.printStackTrace();
+                    rejected++;
+                    continue;
                 }
-                pstmt.executeBatch(); // Executa o lote final
+                loader.addRow(values);
+                rollup.add(values);
             }
+            recordCount = (int) loader.finish(); // Envia o lote final
         }
 
+        ImportMetrics.loaded(event, target.name(), source, recordCount, rejected);
         System.out.println("\n✔️ " + recordCount + " demonstrações financeiras importadas");
         return recordCount;
     }
 
-    private static String extractYearFromFileName(String fileName) {
-        Pattern pattern = Pattern.compile(".*_(\\d{4})_.*");
-        java.util.regex.Matcher matcher = pattern.matcher(fileName);
-        if (matcher.find()) {
-            return matcher.group(1);
+    // Converte uma linha do CSV de operadoras nos valores das 19 colunas de operators
+    static Object[] parseOperatorRow(String[] line) {
+        Object[] values = new Object[TableSpec.OPERATORS.columnCount()];
+        for (int i = 0; i < values.length - 1; i++) {
+            String value = line[i].replace("\"", "").trim();
+            values[i] = value.isEmpty() ? null : value;
+        }
+
+        // Tratamento especial para o campo created_at (posição 19)
+        String createdAtStr = line[18].replace("\"", "").trim(); // Pega a data do CSV
+        if (!createdAtStr.isEmpty()) {
+            try {
+                values[18] = DateDecoder.toDate(createdAtStr);
+            } catch (IllegalArgumentException e) {
+                System.err.println("⚠️ Erro ao converter a data: " + createdAtStr);
+            }
+        }
+        return values;
+    }
+
+    // Converte uma linha do CSV de demonstrações nos valores das colunas de financial_reports
+    static Object[] parseFinancialRow(String[] line) {
+        Object[] values = new Object[TableSpec.FINANCIAL_REPORTS.columnCount()];
+
+        // Data do relatório (java.sql.Date compartilhado por dia)
+        values[0] = DateDecoder.toDate(line[0]);
+
+        // Código da operadora
+        values[1] = line[1].replace("\"", "").trim();
+
+        // Conta
+        values[2] = line[2].replace("\"", "").trim();
+
+        // Descrição
+        values[3] = line[3].replace("\"", "").trim();
+
+        // Consolidado (0 ou 1)
+        values[4] = Integer.parseInt(line[4].trim());
+
+        // Ajusta o formato do valor numérico, removendo aspas e espaçamentos extras
+        String balanceStr = line[5].replace("\"", "").replace(".", "").replace(",", ".").trim();
+        try {
+            values[5] = new BigDecimal(balanceStr);
+        } catch (NumberFormatException e) {
+            System.err.println("⚠️ Erro ao converter o valor: " + balanceStr);
+            values[5] = BigDecimal.ZERO; // Evita falha ao inserir dados
         }
-        return null;
+        return values;
     }
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.ans;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+// Caminho original: INSERT parametrizado com addBatch/executeBatch; o tamanho do lote vem do
+// BatchSizeController, que o ajusta pela latência de cada executeBatch
+class BatchInsertLoader implements RowLoader {
+    private final TableSpec table;
+    private final PreparedStatement pstmt;
+    private final BatchSizeController batches;
+    private final int initialBatchSize;
+    private long rowCount;
+    private int pending;
+
+    BatchInsertLoader(Connection conn, TableSpec table, int batchSize) throws SQLException {
+        this(conn, table, BatchSizeController.fixed(batchSize));
+    }
+
+    BatchInsertLoader(Connection conn, TableSpec table, BatchSizeController batches) throws SQLException {
+        this.table = table;
+        this.batches = batches;
+        this.initialBatchSize = batches.size();
+        this.pstmt = conn.prepareStatement(table.insertSql());
+    }
+
+    @Override
+    public void addRow(Object[] values) throws SQLException {
+        int[] types = table.types();
+        for (int i = 0; i < types.length; i++) {
+            bind(i + 1, types[i], values[i]);
+        }
+        pstmt.addBatch();
+        rowCount++;
+
+        if (++pending >= batches.size()) {
+            executeBatch();
+            System.out.print("⏳ " + rowCount + " registros...");
+        }
+    }
+
+    private void bind(int index, int type, Object value) throws SQLException {
+        if (value == null) {
+            pstmt.setNull(index, type);
+        } else if (value instanceof Date date) {
+            pstmt.setDate(index, date);
+        } else if (value instanceof Integer number) {
+            pstmt.setInt(index, number);
+        } else if (value instanceof BigDecimal decimal) {
+            pstmt.setBigDecimal(index, decimal);
+        } else {
+            pstmt.setString(index, value.toString());
+        }
+    }
+
+    @Override
+    public long finish() throws SQLException {
+        if (pending > 0) {
+            executeBatch(); // Executa o lote final
+        }
+        if (batches.size() != initialBatchSize) {
+            System.out.println("\n📦 Lote de " + table.name() + " ajustado de " + initialBatchSize + " para " +
+                    batches.size() + " linhas");
+        }
+        return rowCount;
+    }
+
+    private void executeBatch() throws SQLException {
+        ImportMetrics.BatchEvent event = new ImportMetrics.BatchEvent();
+        pstmt.executeBatch();
+        batches.record(pending, ImportMetrics.batch(event, table.name(), pending));
+        pending = 0;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        pstmt.close();
+    }
+}
@@ -0,0 +1,74 @@
+package com.ans;
+
+// Ajusta o tamanho do lote do INSERT pela latência medida de cada executeBatch. O alvo é que um lote
+// leve cerca de targetNanos: num banco local (RTT < 1 ms) o lote cresce até diluir o custo por
+// chamada; num remoto (RTT ~20 ms) ele cresce até o RTT pesar pouco. Cada passo no máximo dobra ou
+// divide por dois, e se um aumento derrubar as linhas/s o tamanho anterior vira o teto. O teto é
+// provisório: depois de STABLE_SAMPLES lotes sem nova queda ele dobra (até max) e o aumento é
+// testado de novo, para que uma medição ruidosa (pausa de GC, checkpoint) não limite a carga inteira.
+final class BatchSizeController {
+    // Variação mínima para trocar de tamanho, evitando oscilar com o ruído da medição
+    private static final double MIN_CHANGE = 0.1;
+    // Queda de linhas/s que desfaz o último aumento
+    private static final double THROUGHPUT_DROP = 0.9;
+    // Lotes completos sem queda até o teto voltar a subir
+    static final int STABLE_SAMPLES = 20;
+
+    private final int min;
+    private final int max;
+    private final long targetNanos;
+    private int size;
+    private int ceiling;
+    private int previousSize;
+    private double previousRowsPerSecond;
+    private int stableSamples;
+
+    BatchSizeController(int initial, int min, int max, long targetNanos) {
+        if (min < 1 || min > max) {
+            throw new IllegalArgumentException("Limites de lote inválidos: " + min + ".." + max);
+        }
+        this.min = min;
+        this.max = max;
+        this.targetNanos = targetNanos;
+        this.size = Math.max(min, Math.min(max, initial));
+        this.ceiling = max;
+    }
+
+    // Tamanho fixo, sem ajuste (benchmarks e -Dans.batch.adaptive=false)
+    static BatchSizeController fixed(int size) {
+        return new BatchSizeController(size, size, size, 0);
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Registra um executeBatch de rows linhas que levou nanos; lotes parciais (o último) não ajustam
+    void record(int rows, long nanos) {
+        if (min == max || rows < size || nanos <= 0) {
+            return;
+        }
+        double rowsPerSecond = rows * 1e9 / nanos;
+        if (size > previousSize && previousSize > 0 && rowsPerSecond < previousRowsPerSecond * THROUGHPUT_DROP) {
+            ceiling = previousSize;
+            previousSize = size;
+            previousRowsPerSecond = rowsPerSecond;
+            size = ceiling;
+            stableSamples = 0;
+            return;
+        }
+        if (ceiling < max && ++stableSamples >= STABLE_SAMPLES) {
+            ceiling = (int) Math.min(max, ceiling * 2L);
+            stableSamples = 0;
+        }
+
+        double ideal = (double) size * targetNanos / nanos;
+        int next = (int) Math.max(size / 2.0, Math.min(size * 2.0, ideal));
+        next = Math.max(min, Math.min(ceiling, next));
+        previousSize = size;
+        previousRowsPerSecond = rowsPerSecond;
+        if (Math.abs(next - size) >= size * MIN_CHANGE) {
+            size = next;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.ans;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+// Demonstrações contábeis em memória, por coluna: datas em dias desde 1970-01-01, operadora, conta e
+// descrição codificadas em dicionário e saldos em centavos. As linhas ficam ordenadas por data, então
+// um período vira um intervalo contíguo achado por busca binária (o equivalente ao partition pruning
+// do PostgreSQL), varrido em blocos paralelos só com leituras de arrays primitivos.
+final class ColumnarStore {
+    private static final int CHUNK_ROWS = 1 << 16;
+
+    private final int size;
+    private final int[] dates;
+    private final int[] operators;
+    private final int[] accounts;
+    private final int[] descriptions;
+    private final long[] cents;
+    private final Dictionary operatorCodes;
+    private final Dictionary accountCodes;
+    private final Dictionary descriptionTexts;
+
+    record OperatorTotal(String operatorCode, long cents) {
+        BigDecimal balance() {
+            return BigDecimal.valueOf(cents, 2);
+        }
+    }
+
+    private ColumnarStore(Builder builder, int[] order) {
+        this.size = builder.size;
+        this.dates = permute(builder.dates, order, size);
+        this.operators = permute(builder.operators, order, size);
+        this.accounts = permute(builder.accounts, order, size);
+        this.descriptions = permute(builder.descriptions, order, size);
+        this.cents = permute(builder.cents, order, size);
+        this.operatorCodes = builder.operatorCodes;
+        this.accountCodes = builder.accountCodes;
+        this.descriptionTexts = builder.descriptionTexts;
+    }
+
+    static ColumnarStore load(File[] files) throws IOException {
+        try (FinancialCsvParser parser = new FinancialCsvParser(files, null)) {
+            return build(parser);
+        }
+    }
+
+    static ColumnarStore build(FinancialRowSource parser) throws IOException {
+        Builder builder = new Builder();
+        FinancialRow row = new FinancialRow();
+        int skipped = 0;
+        while (parser.next(row)) {
+            if (row.error != null) {
+                skipped++;
+                continue;
+            }
+            builder.add(row);
+        }
+        if (skipped > 0) {
+            System.err.println("⚠️ " + skipped + " linhas inválidas ignoradas");
+        }
+        return builder.build();
+    }
+
+    int rowCount() {
+        return size;
+    }
+
+    int operatorCount() {
+        return operatorCodes.size();
+    }
+
+    int accountCount() {
+        return accountCodes.size();
+    }
+
+    // Top N operadoras pela soma dos saldos em [from, to) nas linhas cuja conta e descrição atendem
+    // aos filtros. Cada filtro é avaliado uma vez por valor distinto do dicionário, não por linha.
+    List<OperatorTotal> topOperators(LocalDate from, LocalDate to, Predicate<String> account,
+                                     Predicate<String> description, int limit) {
+        int start = lowerBound((int) from.toEpochDay());
+        int end = lowerBound((int) to.toEpochDay());
+        boolean[] accountMatches = accountCodes.matching(account);
+        boolean[] descriptionMatches = descriptionTexts.matching(description);
+
+        int chunks = (end - start + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        long[] totals = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> scan(start + chunk * CHUNK_ROWS,
+                        Math.min(end, start + (chunk + 1) * CHUNK_ROWS), accountMatches, descriptionMatches))
+                .reduce(ColumnarStore::sum)
+                .orElseGet(() -> new long[operatorCodes.size() * 2]);
+
+        Comparator<OperatorTotal> order = Comparator.comparingLong(OperatorTotal::cents).reversed()
+                .thenComparing(OperatorTotal::operatorCode);
+        PriorityQueue<OperatorTotal> top = new PriorityQueue<>(order.reversed()); // Menor no topo
+        for (int operator = 0; operator < operatorCodes.size(); operator++) {
+            if (totals[operator * 2 + 1] == 0) {
+                continue; // Sem linhas no filtro: fica fora, como no GROUP BY
+            }
+            top.add(new OperatorTotal(operatorCodes.value(operator), totals[operator * 2]));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<OperatorTotal> result = new ArrayList<>(top);
+        result.sort(order);
+        return result;
+    }
+
+    // Converte um padrão do ILIKE (% e _) num filtro de texto sem diferenciar maiúsculas
+    static Predicate<String> like(String sqlPattern) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : sqlPattern.toCharArray()) {
+            if (c == '%' || c == '_') {
+                regex.append(Pattern.quote(literal.toString())).append(c == '%' ? ".*" : ".");
+                literal.setLength(0);
+            } else {
+                literal.append(c);
+            }
+        }
+        regex.append(Pattern.quote(literal.toString()));
+        Pattern pattern = Pattern.compile(regex.toString(),
+                Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+        return text -> pattern.matcher(text).matches();
+    }
+
+    // Soma por operadora: posição 2*id acumula os centavos e 2*id+1 conta as linhas
+    private long[] scan(int from, int to, boolean[] accountMatches, boolean[] descriptionMatches) {
+        long[] totals = new long[operatorCodes.size() * 2];
+        for (int i = from; i < to; i++) {
+            if (accountMatches[accounts[i]] & descriptionMatches[descriptions[i]]) {
+                int slot = operators[i] << 1;
+                totals[slot] += cents[i];
+                totals[slot + 1]++;
+            }
+        }
+        return totals;
+    }
+
+    private static long[] sum(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] += b[i];
+        }
+        return a;
+    }
+
+    // Primeira linha com data >= epochDay
+    private int lowerBound(int epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (dates[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int[] permute(int[] column, int[] order, int size) {
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = column[order == null ? i : order[i]];
+        }
+        return result;
+    }
+
+    private static long[] permute(long[] column, int[] order, int size) {
+        long[] result = new long[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = column[order == null ? i : order[i]];
+        }
+        return result;
+    }
+
+    // Valores distintos de uma coluna de texto; o código é a posição de inclusão
+    private static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int id(String value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        String value(int id) {
+            return values.get(id);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        boolean[] matching(Predicate<String> filter) {
+            boolean[] matches = new boolean[values.size()];
+            for (int i = 0; i < matches.length; i++) {
+                matches[i] = filter.test(values.get(i));
+            }
+            return matches;
+        }
+    }
+
+    private static final class Builder {
+        private int size;
+        private int[] dates = new int[1024];
+        private int[] operators = new int[1024];
+        private int[] accounts = new int[1024];
+        private int[] descriptions = new int[1024];
+        private long[] cents = new long[1024];
+        private boolean sorted = true;
+        private final Dictionary operatorCodes = new Dictionary();
+        private final Dictionary accountCodes = new Dictionary();
+        private final Dictionary descriptionTexts = new Dictionary();
+
+        void add(FinancialRow row) {
+            if (size == dates.length) {
+                int capacity = size * 2;
+                dates = Arrays.copyOf(dates, capacity);
+                operators = Arrays.copyOf(operators, capacity);
+                accounts = Arrays.copyOf(accounts, capacity);
+                descriptions = Arrays.copyOf(descriptions, capacity);
+                cents = Arrays.copyOf(cents, capacity);
+            }
+            if (size > 0 && row.reportEpochDay < dates[size - 1]) {
+                sorted = false;
+            }
+            dates[size] = row.reportEpochDay;
+            operators[size] = operatorCodes.id(row.operatorCode);
+            accounts[size] = accountCodes.id(row.account);
+            descriptions[size] = descriptionTexts.id(row.description);
+            cents[size] = QuarterlyRollup.toCents(row.balanceUnscaled, row.balanceScale);
+            size++;
+        }
+
+        ColumnarStore build() {
+            return new ColumnarStore(this, sorted ? null : orderByDate());
+        }
+
+        // Ordenação estável por contagem: os arquivos trazem poucas datas distintas
+        private int[] orderByDate() {
+            TreeMap<Integer, Integer> offsets = new TreeMap<>();
+            for (int i = 0; i < size; i++) {
+                offsets.merge(dates[i], 1, Integer::sum);
+            }
+            int next = 0;
+            for (Map.Entry<Integer, Integer> entry : offsets.entrySet()) {
+                int count = entry.getValue();
+                entry.setValue(next);
+                next += count;
+            }
+
+            Map<Integer, int[]> cursors = new HashMap<>();
+            offsets.forEach((date, offset) -> cursors.put(date, new int[]{offset}));
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[cursors.get(dates[i])[0]++] = i;
+            }
+            return order;
+        }
+    }
+}
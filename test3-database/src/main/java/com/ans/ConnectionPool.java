@@ -0,0 +1,54 @@
+package com.ans;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Pool fixo e simples de conexões, suficiente para os workers da importação paralela
+class ConnectionPool implements AutoCloseable {
+    private final List<Connection> connections = new ArrayList<>();
+    private final BlockingQueue<Connection> idle;
+
+    ConnectionPool(String url, String user, String pass, int size) throws SQLException {
+        this.idle = new ArrayBlockingQueue<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection conn = DriverManager.getConnection(url, user, pass);
+                connections.add(conn);
+                idle.add(conn);
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+    }
+
+    int size() {
+        return connections.size();
+    }
+
+    Connection borrow() throws InterruptedException {
+        return idle.take();
+    }
+
+    void release(Connection conn) {
+        idle.offer(conn);
+    }
+
+    @Override
+    public void close() {
+        for (Connection conn : connections) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                System.err.println("⚠️ Erro ao fechar conexão: " + e.getMessage());
+            }
+        }
+        connections.clear();
+        idle.clear();
+    }
+}
@@ -0,0 +1,416 @@
+package com.ans;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+// Carga via protocolo COPY do PostgreSQL (CopyManager.copyIn), em formato texto ou binário
+class CopyLoader implements RowLoader {
+    private static final int FLUSH_THRESHOLD = 256 * 1024;
+    private static final int PROGRESS_INTERVAL = 100_000;
+    private static final byte[] BINARY_HEADER = {
+            'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0, // assinatura
+            0, 0, 0, 0, // flags
+            0, 0, 0, 0  // tamanho da extensão do cabeçalho
+    };
+    // Datas binárias do PostgreSQL contam dias a partir de 2000-01-01
+    private static final long PG_EPOCH_DAY = LocalDate.of(2000, 1, 1).toEpochDay();
+
+    private final TableSpec table;
+    private final boolean binary;
+    private final CopyIn copyIn;
+    private final Buffer buffer = new Buffer(FLUSH_THRESHOLD + 8192);
+    private long rowCount;
+    private long flushedRows;
+    private boolean finished;
+
+    CopyLoader(Connection conn, TableSpec table, boolean binary) throws SQLException {
+        this(conn.unwrap(PGConnection.class).getCopyAPI().copyIn(copySql(table, binary)), table, binary);
+    }
+
+    // Recebe o COPY já aberto (também usado pelos benchmarks, com um CopyIn que descarta os bytes)
+    CopyLoader(CopyIn copyIn, TableSpec table, boolean binary) {
+        this.table = table;
+        this.binary = binary;
+        this.copyIn = copyIn;
+        if (binary) {
+            buffer.write(BINARY_HEADER, 0, BINARY_HEADER.length);
+        }
+    }
+
+    private static String copySql(TableSpec table, boolean binary) {
+        return "COPY " + table.name() + " (" + table.columnList() + ") FROM STDIN" +
+                (binary ? " WITH (FORMAT binary)" : "");
+    }
+
+    @Override
+    public void addRow(Object[] values) throws SQLException {
+        if (binary) {
+            encodeBinary(values);
+        } else {
+            encodeText(values);
+        }
+        rowCount++;
+
+        if (buffer.size() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+        if (rowCount % PROGRESS_INTERVAL == 0) {
+            System.out.print("⏳ " + rowCount + " registros...");
+        }
+    }
+
+    @Override
+    public void addFinancialRow(FinancialRow row) throws SQLException {
+        if (binary) {
+            buffer.writeShort(6);
+            buffer.writeInt(4);
+            buffer.writeInt((int) (row.reportEpochDay - PG_EPOCH_DAY));
+            writeBinaryText(row.operatorCode);
+            writeBinaryText(row.account);
+            writeBinaryText(row.description);
+            buffer.writeInt(4);
+            buffer.writeInt(row.consolidated);
+            writeNumeric(buffer, row.balanceUnscaled, row.balanceScale);
+        } else {
+            writeIsoDate(buffer, row.reportEpochDay);
+            buffer.write('\t');
+            writeTextOrNull(row.operatorCode);
+            buffer.write('\t');
+            writeTextOrNull(row.account);
+            buffer.write('\t');
+            writeTextOrNull(row.description);
+            buffer.write('\t');
+            buffer.writeDecimal(row.consolidated, 0);
+            buffer.write('\t');
+            buffer.writeDecimal(row.balanceUnscaled, row.balanceScale);
+            buffer.write('\n');
+        }
+        rowCount++;
+
+        if (buffer.size() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+        if (rowCount % PROGRESS_INTERVAL == 0) {
+            System.out.print("⏳ " + rowCount + " registros...");
+        }
+    }
+
+    private void writeTextOrNull(String value) {
+        if (value == null) {
+            buffer.write('\\');
+            buffer.write('N');
+        } else {
+            writeEscaped(value);
+        }
+    }
+
+    // Texto em UTF-8 precedido do tamanho, preenchido depois de codificar
+    private void writeBinaryText(String value) {
+        if (value == null) {
+            buffer.writeInt(-1);
+            return;
+        }
+        int lengthAt = buffer.size();
+        buffer.writeInt(0);
+        buffer.writeUtf8(value, 0, value.length());
+        buffer.patchInt(lengthAt, buffer.size() - lengthAt - 4);
+    }
+
+    // Data ISO (yyyy-mm-dd) a partir dos dias desde 1970-01-01, sem passar por LocalDate
+    static void writeIsoDate(Buffer out, int epochDay) {
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int day = doy - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+        out.write('0' + year / 1000 % 10);
+        out.write('0' + year / 100 % 10);
+        out.write('0' + year / 10 % 10);
+        out.write('0' + year % 10);
+        out.write('-');
+        out.write('0' + month / 10);
+        out.write('0' + month % 10);
+        out.write('-');
+        out.write('0' + day / 10);
+        out.write('0' + day % 10);
+    }
+
+    private void encodeText(Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                buffer.write('\t');
+            }
+            Object value = values[i];
+            if (value == null) {
+                buffer.write('\\');
+                buffer.write('N');
+            } else if (value instanceof BigDecimal decimal) {
+                buffer.writeAscii(decimal.toPlainString());
+            } else {
+                writeEscaped(value.toString());
+            }
+        }
+        buffer.write('\n');
+    }
+
+    // Escapa os caracteres especiais do formato texto do COPY
+    private void writeEscaped(String value) {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            char escaped = switch (c) {
+                case '\\' -> '\\';
+                case '\n' -> 'n';
+                case '\r' -> 'r';
+                case '\t' -> 't';
+                default -> 0;
+            };
+            if (escaped != 0) {
+                buffer.writeUtf8(value, start, i);
+                buffer.write('\\');
+                buffer.write(escaped);
+                start = i + 1;
+            }
+        }
+        buffer.writeUtf8(value, start, value.length());
+    }
+
+    private void encodeBinary(Object[] values) {
+        int[] types = table.types();
+        buffer.writeShort(values.length);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                buffer.writeInt(-1);
+                continue;
+            }
+            switch (types[i]) {
+                case java.sql.Types.DATE -> {
+                    buffer.writeInt(4);
+                    buffer.writeInt((int) (((Date) value).toLocalDate().toEpochDay() - PG_EPOCH_DAY));
+                }
+                case java.sql.Types.INTEGER -> {
+                    buffer.writeInt(4);
+                    buffer.writeInt((Integer) value);
+                }
+                case java.sql.Types.NUMERIC -> writeNumeric(buffer, (BigDecimal) value);
+                default -> writeBinaryText(value.toString());
+            }
+        }
+    }
+
+    // Representação binária de NUMERIC: dígitos na base 10000, peso, sinal e escala
+    static void writeNumeric(Buffer out, BigDecimal value) {
+        BigDecimal abs = value.abs();
+        if (abs.scale() < 0) {
+            abs = abs.setScale(0);
+        }
+        String plain = abs.toPlainString();
+        int dot = plain.indexOf('.');
+        String intPart = dot < 0 ? plain : plain.substring(0, dot);
+        String fracPart = dot < 0 ? "" : plain.substring(dot + 1);
+        int dscale = fracPart.length();
+
+        intPart = "0".repeat((4 - intPart.length() % 4) % 4) + intPart;
+        fracPart = fracPart + "0".repeat((4 - fracPart.length() % 4) % 4);
+        String all = intPart + fracPart;
+
+        short[] digits = new short[all.length() / 4];
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = Short.parseShort(all.substring(i * 4, i * 4 + 4));
+        }
+
+        int first = 0;
+        int last = digits.length;
+        int weight = intPart.length() / 4 - 1;
+        while (first < last && digits[first] == 0) {
+            first++;
+            weight--;
+        }
+        while (last > first && digits[last - 1] == 0) {
+            last--;
+        }
+        int ndigits = last - first;
+        if (ndigits == 0) {
+            weight = 0;
+        }
+
+        out.writeInt(8 + 2 * ndigits);
+        out.writeShort(ndigits);
+        out.writeShort(weight);
+        out.writeShort(value.signum() < 0 ? 0x4000 : 0x0000);
+        out.writeShort(dscale);
+        for (int i = first; i < last; i++) {
+            out.writeShort(digits[i]);
+        }
+    }
+
+    // Mesmo formato, a partir de um valor sem escala + escala (ex.: 123456 / 2 = 1234.56)
+    static void writeNumeric(Buffer out, long unscaled, int scale) {
+        long abs = Math.abs(unscaled);
+        int pad = (4 - scale % 4) % 4;
+        if (scale < 0 || scale > 16 || abs > Long.MAX_VALUE / 1000) {
+            writeNumeric(out, BigDecimal.valueOf(unscaled, scale));
+            return;
+        }
+        for (int i = 0; i < pad; i++) {
+            abs *= 10;
+        }
+        int fracGroups = (scale + pad) / 4;
+
+        // Grupos de 4 dígitos, do menos para o mais significativo
+        short[] groups = out.groups;
+        int count = 0;
+        while (abs > 0 || count < fracGroups) {
+            groups[count++] = (short) (abs % 10000);
+            abs /= 10000;
+        }
+        int weight = count - fracGroups - 1;
+        int first = count - 1;
+        while (first >= 0 && groups[first] == 0) {
+            first--;
+            weight--;
+        }
+        int last = 0;
+        while (last <= first && groups[last] == 0) {
+            last++;
+        }
+        int ndigits = first - last + 1;
+        if (ndigits <= 0) {
+            ndigits = 0;
+            weight = 0;
+        }
+
+        out.writeInt(8 + 2 * ndigits);
+        out.writeShort(ndigits);
+        out.writeShort(weight);
+        out.writeShort(unscaled < 0 ? 0x4000 : 0x0000);
+        out.writeShort(scale);
+        for (int i = first; i >= last; i--) {
+            out.writeShort(groups[i]);
+        }
+    }
+
+    private void flush() throws SQLException {
+        if (buffer.size() > 0) {
+            ImportMetrics.BatchEvent event = new ImportMetrics.BatchEvent();
+            copyIn.writeToCopy(buffer.array(), 0, buffer.size());
+            buffer.reset();
+            ImportMetrics.batch(event, table.name(), (int) (rowCount - flushedRows));
+            flushedRows = rowCount;
+        }
+    }
+
+    @Override
+    public long finish() throws SQLException {
+        if (finished) {
+            return rowCount;
+        }
+        if (binary) {
+            buffer.writeShort(-1); // Trailer do formato binário
+        }
+        flush();
+        finished = true;
+        return copyIn.endCopy();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (!finished && copyIn.isActive()) {
+            copyIn.cancelCopy();
+        }
+    }
+
+    // Buffer de bytes reaproveitado entre os envios ao servidor
+    static class Buffer extends ByteArrayOutputStream {
+        // Áreas de trabalho para números, evitando alocação por valor
+        final short[] groups = new short[8];
+        private final byte[] digits = new byte[20];
+
+        Buffer(int size) {
+            super(size);
+        }
+
+        void patchInt(int at, int v) {
+            buf[at] = (byte) (v >>> 24);
+            buf[at + 1] = (byte) (v >>> 16);
+            buf[at + 2] = (byte) (v >>> 8);
+            buf[at + 3] = (byte) v;
+        }
+
+        void writeDecimal(long unscaled, int scale) {
+            if (unscaled < 0) {
+                write('-');
+            }
+            long abs = Math.abs(unscaled);
+            int n = 0;
+            do {
+                digits[digits.length - 1 - n++] = (byte) ('0' + abs % 10);
+                abs /= 10;
+            } while (abs > 0 || n <= scale);
+            int from = digits.length - n;
+            write(digits, from, n - scale);
+            if (scale > 0) {
+                write('.');
+                write(digits, digits.length - scale, scale);
+            }
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        void writeShort(int v) {
+            write(v >>> 8);
+            write(v);
+        }
+
+        void writeInt(int v) {
+            write(v >>> 24);
+            write(v >>> 16);
+            write(v >>> 8);
+            write(v);
+        }
+
+        void writeAscii(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                write(s.charAt(i));
+            }
+        }
+
+        // Codifica em UTF-8 direto no buffer, sem byte[] intermediário
+        void writeUtf8(String s, int from, int to) {
+            for (int i = from; i < to; i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    write(c);
+                } else if (c < 0x800) {
+                    write(0xC0 | (c >> 6));
+                    write(0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    write(0xF0 | (cp >> 18));
+                    write(0x80 | ((cp >> 12) & 0x3F));
+                    write(0x80 | ((cp >> 6) & 0x3F));
+                    write(0x80 | (cp & 0x3F));
+                } else {
+                    write(0xE0 | (c >> 12));
+                    write(0x80 | ((c >> 6) & 0x3F));
+                    write(0x80 | (c & 0x3F));
+                }
+            }
+        }
+    }
+}
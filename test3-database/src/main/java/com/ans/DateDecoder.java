@@ -0,0 +1,93 @@
+package com.ans;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Conversão de datas ISO (yyyy-mm-dd) compartilhada pelas importações de operadoras e de
+// demonstrações. Sem estado mutável além do cache concorrente, pode ser usada por várias
+// threads ao mesmo tempo (ao contrário do SimpleDateFormat). Como as colunas de data têm
+// poucos valores distintos, cada dia vira um único java.sql.Date reaproveitado: quem recebe
+// a instância não deve alterá-la.
+final class DateDecoder {
+    private static final int MAX_CACHED = 16384;
+    private static final Map<Integer, Date> CACHE = new ConcurrentHashMap<>();
+
+    private DateDecoder() {
+    }
+
+    // Converte o texto (aspas e espaços nas pontas são ignorados); lança IllegalArgumentException se inválido
+    static Date toDate(String text) {
+        int epochDay = parseEpochDay(text, 0, text.length());
+        if (epochDay == Integer.MIN_VALUE) {
+            throw new IllegalArgumentException("Data inválida: " + text);
+        }
+        return toDate(epochDay);
+    }
+
+    static Date toDate(int epochDay) {
+        Date date = CACHE.get(epochDay);
+        if (date == null) {
+            if (CACHE.size() >= MAX_CACHED) {
+                CACHE.clear(); // Evita crescimento sem limite com dados inesperados
+            }
+            date = Date.valueOf(LocalDate.ofEpochDay(epochDay));
+            Date previous = CACHE.putIfAbsent(epochDay, date);
+            if (previous != null) {
+                date = previous;
+            }
+        }
+        return date;
+    }
+
+    // Data ISO (yyyy-[m]m-[d]d) em dias desde a época, ou Integer.MIN_VALUE se inválida
+    static int parseEpochDay(CharSequence text, int start, int end) {
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int part = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                int digit = c - '0';
+                switch (part) {
+                    case 0 -> year = year * 10 + digit;
+                    case 1 -> month = month * 10 + digit;
+                    default -> day = day * 10 + digit;
+                }
+                if (++digits > 4) {
+                    return Integer.MIN_VALUE;
+                }
+            } else if (c == '-' && digits > 0 && part < 2) {
+                part++;
+                digits = 0;
+            } else if (c != '"' && c > ' ') {
+                return Integer.MIN_VALUE;
+            }
+        }
+        if (part != 2 || digits == 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return Integer.MIN_VALUE;
+        }
+        return epochDay(year, month, day);
+    }
+
+    static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    // Dias desde 1970-01-01 para uma data do calendário gregoriano
+    static int epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yoe = y - era * 400;
+        int doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+}
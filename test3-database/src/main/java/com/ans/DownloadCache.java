@@ -0,0 +1,117 @@
+package com.ans;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+
+// Metadados persistentes dos downloads (ETag, Last-Modified, Content-Length, SHA-256 e os
+// arquivos gerados a partir deles), um .properties por URL. Usado para requisições
+// condicionais: se o servidor responde 304, nem o download nem a extração são refeitos.
+class DownloadCache {
+
+    record Entry(String etag, String lastModified, long contentLength, String sha256, List<String> outputs) {
+
+        Entry withOutputs(List<String> newOutputs) {
+            return new Entry(etag, lastModified, contentLength, sha256, newOutputs);
+        }
+
+        // Só vale a pena revalidar se tudo o que foi gerado a partir do download ainda existe
+        boolean outputsExist() {
+            if (outputs.isEmpty()) {
+                return false;
+            }
+            for (String output : outputs) {
+                if (!Files.exists(Paths.get(output))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final Path dir;
+
+    DownloadCache(Path dir) {
+        this.dir = dir;
+    }
+
+    // Entrada utilizável para revalidação, ou null se não houver cache ou as saídas sumiram
+    Entry lookup(String url) throws IOException {
+        Path file = entryPath(url);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            props.load(in);
+        }
+        List<String> outputs = new ArrayList<>();
+        for (String output : props.getProperty("outputs", "").split("\\|")) {
+            if (!output.isEmpty()) {
+                outputs.add(output);
+            }
+        }
+        Entry entry = new Entry(
+                props.getProperty("etag"),
+                props.getProperty("last_modified"),
+                Long.parseLong(props.getProperty("content_length", "-1")),
+                props.getProperty("sha256"),
+                outputs);
+        return entry.outputsExist() ? entry : null;
+    }
+
+    void store(String url, Entry entry) throws IOException {
+        Files.createDirectories(dir);
+        Properties props = new Properties();
+        props.setProperty("url", url);
+        if (entry.etag() != null) {
+            props.setProperty("etag", entry.etag());
+        }
+        if (entry.lastModified() != null) {
+            props.setProperty("last_modified", entry.lastModified());
+        }
+        props.setProperty("content_length", String.valueOf(entry.contentLength()));
+        if (entry.sha256() != null) {
+            props.setProperty("sha256", entry.sha256());
+        }
+        props.setProperty("outputs", String.join("|", entry.outputs()));
+
+        // Grava num temporário e move, para nunca deixar metadados pela metade
+        Path file = entryPath(url);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            props.store(out, null);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Arquivo auxiliar dentro do cache (ex.: HTML das listagens do FTP)
+    Path dataPath(String url, String suffix) {
+        return dir.resolve(key(url) + suffix);
+    }
+
+    private Path entryPath(String url) {
+        return dataPath(url, ".properties");
+    }
+
+    private static String key(String url) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.ans;
 
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -16,6 +17,13 @@ import java.util.zip.ZipInputStream;
 public class FileDownloader {
     private static final String ANS_BASE_URL = "https://dadosabertos.ans.gov.br/FTP/PDA/";
     private static final int TIMEOUT = 120000; // 2 minutos
+    // Downloads simultâneos e segmentos HTTP Range por arquivo (-Dans.download.parallel / .segments)
+    private static final int PARALLEL_DOWNLOADS = Integer.getInteger("ans.download.parallel", 4);
+    private static final int SEGMENTS_PER_FILE = Integer.getInteger("ans.download.segments", 4);
+    private static final long MIN_SEGMENT_SIZE = 8L * 1024 * 1024;
+    private static final int STREAM_BUFFER_SIZE = 256 * 1024;
+    // Metadados para downloads condicionais (ETag / Last-Modified)
+    private static final DownloadCache CACHE = new DownloadCache(Paths.get("src/main/resources/data/.cache"));
 
     // Padrões para identificar os arquivos
     private static final Pattern OPERADORAS_PATTERN =
@@ -25,6 +33,11 @@ public class FileDownloader {
             Pattern.compile("\\dT\\d{4}\\.zip", Pattern.CASE_INSENSITIVE);
 
     public static void downloadRequiredFiles() {
+        downloadRequiredFiles(true);
+    }
+
+    // Sem as demonstrações, baixa só as operadoras (os ZIPs são lidos depois via streamDemonstracoes)
+    public static void downloadRequiredFiles(boolean includeDemonstracoes) {
         try {
             System.out.println("🚀 Iniciando download dos arquivos oficiais da ANS");
 
@@ -35,7 +48,9 @@ public class FileDownloader {
             downloadOperadorasFile();
 
             // 3. Demonstrações Contábeis (2023 e 2024)
-            downloadAndProcessDemonstracoesFiles();
+            if (includeDemonstracoes) {
+                downloadAndProcessDemonstracoesFiles();
+            }
 
             System.out.println("\n✅ Todos os arquivos foram processados com sucesso!");
 
@@ -53,7 +68,16 @@ public class FileDownloader {
                 "operadoras_de_plano_de_saude_ativas",
                 OPERADORAS_PATTERN
         );
-        downloadFile(ANS_BASE_URL + operadorasPath, "src/main/resources/data/active_operators.csv");
+        String url = ANS_BASE_URL + operadorasPath;
+        try (SegmentedDownloader downloader = newDownloader()) {
+            DownloadCache.Entry entry = downloader.download(
+                    url, Paths.get("src/main/resources/data/active_operators.csv"), CACHE.lookup(url));
+            if (entry == null) {
+                System.out.println("♻️ Operadoras sem alterações no servidor, usando cópia local");
+            } else {
+                CACHE.store(url, entry);
+            }
+        }
     }
 
     private static void downloadAndProcessDemonstracoesFiles() throws IOException {
@@ -64,12 +88,34 @@ public class FileDownloader {
         for (int year = currentYear - 2; year < currentYear; year++) {
             System.out.println("\n🔎 Processando demonstrações contábeis para " + year);
 
-            // 1. Baixa todos os ZIPs do ano
+            // 1. Baixa todos os ZIPs do ano em paralelo (condicional, quando há cache)
             List<String> zipFiles = findZipFilesForYear(year);
+            Map<String, Path> downloads = new LinkedHashMap<>();
+            Map<String, DownloadCache.Entry> cached = new HashMap<>();
+            for (String zipFile : zipFiles) {
+                String zipUrl = zipUrl(year, zipFile);
+                System.out.println("⬇️ Baixando: " + zipUrl);
+                downloads.put(zipUrl, Paths.get(tempZipPath(zipFile)));
+                DownloadCache.Entry entry = CACHE.lookup(zipUrl);
+                if (entry != null) {
+                    cached.put(zipUrl, entry);
+                }
+            }
+            Map<String, DownloadCache.Entry> downloaded;
+            try (SegmentedDownloader downloader = newDownloader()) {
+                downloaded = downloader.downloadAll(downloads, cached);
+            }
 
-            // 2. Processa cada arquivo ZIP
+            // 2. Processa cada arquivo ZIP que mudou; os inalterados mantêm os CSVs já extraídos
             for (String zipFile : zipFiles) {
-                processDemonstracaoZip(zipFile, year);
+                String zipUrl = zipUrl(year, zipFile);
+                DownloadCache.Entry entry = downloaded.get(zipUrl);
+                if (entry == null) {
+                    System.out.println("♻️ " + zipFile + " sem alterações no servidor, extração dispensada");
+                    continue;
+                }
+                List<String> outputs = processDemonstracaoZip(zipFile, year);
+                CACHE.store(zipUrl, entry.withOutputs(outputs));
             }
 
             // 3. Consolida os dados do ano
@@ -77,10 +123,53 @@ public class FileDownloader {
         }
     }
 
+    // Recebe cada CSV de dentro de um ZIP enquanto ele é baixado e descompactado
+    interface ZipCsvConsumer {
+        void accept(String zipFilename, String entryName, InputStream csv) throws Exception;
+    }
+
+    // Baixa os ZIPs do ano e entrega cada CSV direto da resposta HTTP, sem gravar nada em disco.
+    // Devolve false se o ano ainda não tem ZIPs publicados.
+    static boolean streamDemonstracoes(int year, ZipCsvConsumer consumer) throws Exception {
+        List<String> zipFiles;
+        try {
+            zipFiles = findZipFilesForYear(year);
+        } catch (IOException e) {
+            System.err.println("⚠️ " + e.getMessage());
+            return false;
+        }
+
+        for (String zipFile : zipFiles) {
+            String zipUrl = zipUrl(year, zipFile);
+            System.out.println("⬇️ Lendo: " + zipUrl);
+
+            HttpURLConnection conn = (HttpURLConnection) new URL(zipUrl).openConnection();
+            conn.setConnectTimeout(TIMEOUT);
+            conn.setReadTimeout(TIMEOUT);
+            try {
+                if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                    throw new IOException("HTTP " + conn.getResponseCode() + " - " + conn.getResponseMessage());
+                }
+                try (ZipInputStream zis = new ZipInputStream(
+                        new BufferedInputStream(conn.getInputStream(), STREAM_BUFFER_SIZE))) {
+                    ZipEntry entry;
+                    while ((entry = zis.getNextEntry()) != null) {
+                        if (entry.getName().toLowerCase().endsWith(".csv")) {
+                            consumer.accept(zipFile, entry.getName(), zis);
+                        }
+                    }
+                }
+            } finally {
+                conn.disconnect();
+            }
+        }
+        return true;
+    }
+
     private static List<String> findZipFilesForYear(int year) throws IOException {
         System.out.println("🔍 Procurando arquivos ZIP para " + year);
 
-        Document doc = Jsoup.connect(ANS_BASE_URL + "demonstracoes_contabeis/" + year).timeout(TIMEOUT).get();
+        Document doc = fetchListing(ANS_BASE_URL + "demonstracoes_contabeis/" + year);
         Elements links = doc.select("a[href]");
 
         List<String> matchedFiles = new ArrayList<>();
@@ -101,23 +190,58 @@ public class FileDownloader {
         return matchedFiles;
     }
 
-    private static void processDemonstracaoZip(String zipFilename, int year) throws IOException {
-        String zipUrl = ANS_BASE_URL + "demonstracoes_contabeis/" + year + "/" + zipFilename;
-        String localZipPath = "src/main/resources/data/temp_" + zipFilename;
+    // Listagem do FTP com GET condicional; em 304 usa o HTML guardado no cache
+    private static Document fetchListing(String url) throws IOException {
+        DownloadCache.Entry cached = CACHE.lookup(url);
+        Connection connection = Jsoup.connect(url).timeout(TIMEOUT).ignoreHttpErrors(true);
+        if (cached != null && cached.etag() != null) {
+            connection.header("If-None-Match", cached.etag());
+        }
+        if (cached != null && cached.lastModified() != null) {
+            connection.header("If-Modified-Since", cached.lastModified());
+        }
+
+        Connection.Response response = connection.execute();
+        Path html = CACHE.dataPath(url, ".html");
+        if (response.statusCode() == 304 && cached != null) {
+            return Jsoup.parse(html.toFile(), "UTF-8", url);
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode() + " - " + url);
+        }
 
-        // 1. Baixa o ZIP
-        System.out.println("⬇️ Baixando: " + zipUrl);
-        downloadFile(zipUrl, localZipPath);
+        Document doc = response.parse();
+        Files.createDirectories(html.getParent());
+        Files.writeString(html, doc.outerHtml());
+        CACHE.store(url, new DownloadCache.Entry(response.header("ETag"), response.header("Last-Modified"),
+                Files.size(html), null, List.of(html.toString())));
+        return doc;
+    }
 
-        // 2. Extrai o CSV do ZIP
+    private static String zipUrl(int year, String zipFilename) {
+        return ANS_BASE_URL + "demonstracoes_contabeis/" + year + "/" + zipFilename;
+    }
+
+    private static String tempZipPath(String zipFilename) {
+        return "src/main/resources/data/temp_" + zipFilename;
+    }
+
+    private static List<String> processDemonstracaoZip(String zipFilename, int year) throws IOException {
+        String localZipPath = tempZipPath(zipFilename);
+
+        // 1. Extrai o CSV do ZIP (já baixado)
         System.out.println("📦 Extraindo arquivos de " + zipFilename);
-        extractCSVFromZip(localZipPath, year);
+        List<String> outputs = extractCSVFromZip(localZipPath, year);
 
-        // 3. Remove o ZIP após extração
+        // 2. Remove o ZIP após extração
         Files.deleteIfExists(Paths.get(localZipPath));
+        return outputs;
     }
 
-    private static void extractCSVFromZip(String zipPath, int year) throws IOException {
+    private static List<String> extractCSVFromZip(String zipPath, int year) throws IOException {
+        ImportMetrics.ExtractionEvent event = new ImportMetrics.ExtractionEvent();
+        List<String> outputs = new ArrayList<>();
+        long bytes = 0;
         try (ZipInputStream zis = new ZipInputStream(new FileInputStream(zipPath))) {
             ZipEntry entry;
             while ((entry = zis.getNextEntry()) != null) {
@@ -135,11 +259,15 @@ public class FileDownloader {
                         int len;
                         while ((len = zis.read(buffer)) > 0) {
                             fos.write(buffer, 0, len);
+                            bytes += len;
                         }
                     }
+                    outputs.add(outputPath);
                 }
             }
         }
+        ImportMetrics.extracted(event, Paths.get(zipPath).getFileName().toString(), outputs.size(), bytes);
+        return outputs;
     }
 
     private static void consolidateYearData(int year) throws IOException {
@@ -149,7 +277,7 @@ public class FileDownloader {
     }
 
     private static String findLatestFile(String directory, Pattern pattern) throws IOException {
-        Document doc = Jsoup.connect(ANS_BASE_URL + directory).timeout(TIMEOUT).get();
+        Document doc = fetchListing(ANS_BASE_URL + directory);
         Elements links = doc.select("a[href]");
 
         List<String> matchedFiles = new ArrayList<>();
@@ -169,23 +297,8 @@ public class FileDownloader {
         return directory + "/" + matchedFiles.get(0);
     }
 
-    private static void downloadFile(String fileUrl, String localPath) throws IOException {
-        URL url = new URL(fileUrl);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setConnectTimeout(TIMEOUT);
-        conn.setReadTimeout(TIMEOUT);
-
-        if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
-            throw new IOException("HTTP " + conn.getResponseCode() + " - " + conn.getResponseMessage());
-        }
-
-        File localFile = new File(localPath);
-        try (InputStream in = conn.getInputStream()) {
-            Files.copy(in, localFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-        } finally {
-            conn.disconnect();
-        }
+    private static SegmentedDownloader newDownloader() {
+        return new SegmentedDownloader(PARALLEL_DOWNLOADS, SEGMENTS_PER_FILE, MIN_SEGMENT_SIZE);
     }
 
     private static void printManualInstructions() {
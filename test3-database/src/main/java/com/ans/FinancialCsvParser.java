@@ -0,0 +1,335 @@
+package com.ans;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+// Parser dedicado ao layout das demonstrações contábeis (';', aspas ignoradas como no opencsv
+// com withIgnoreQuotations). Trabalha direto sobre um buffer de chars reaproveitado: datas e
+// valores viram primitivos sem Strings intermediárias, e textos repetidos (código da operadora,
+// conta, descrição) saem de um cache em vez de gerar uma String nova por linha.
+final class FinancialCsvParser implements FinancialRowSource {
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_FIELDS = 8;
+    private static final int FIELD_COUNT = 6;
+
+    private final File[] files;
+    private final long[] rowsRead;
+    private final Writer sideOutput;
+    private final StringCache strings = new StringCache(1 << 14);
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private Reader current;
+    private int nextFile;
+    private boolean headerWritten;
+
+    private char[] buf = new char[BUFFER_SIZE];
+    private final CharSequence chars = new CharSequence() { // Visão do buffer sem cópia
+        public int length() {
+            return limit;
+        }
+
+        public char charAt(int index) {
+            return buf[index];
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            return new String(buf, start, end - start);
+        }
+    };
+    private int pos;
+    private int limit;
+    private int scan;
+    private boolean eof;
+    private int lineStart;
+    private int lineEnd;
+    private int fieldCount;
+    private int decimalScale;
+
+    // Lê os arquivos em sequência, pulando o cabeçalho de cada um (como o QuarterlyCsvReader)
+    FinancialCsvParser(File[] files, String consolidatedOutput) throws IOException {
+        this.files = files;
+        this.rowsRead = new long[files.length];
+        this.sideOutput = consolidatedOutput == null ? null
+                : new BufferedWriter(new FileWriter(consolidatedOutput, Charset.defaultCharset()), BUFFER_SIZE);
+    }
+
+    // Lê um único fluxo (ex.: entrada de um ZIP), pulando o cabeçalho
+    FinancialCsvParser(Reader reader) throws IOException {
+        this(reader, true);
+    }
+
+    // Trechos do meio de um arquivo (MappedCsvReader) não têm cabeçalho
+    FinancialCsvParser(Reader reader, boolean header) throws IOException {
+        this.files = new File[0];
+        this.rowsRead = new long[0];
+        this.sideOutput = null;
+        this.current = reader;
+        if (header) {
+            readLine(); // Pula cabeçalho
+        }
+    }
+
+    @Override
+    public boolean next(FinancialRow row) throws IOException {
+        while (true) {
+            if (current == null && !openNext()) {
+                return false;
+            }
+            if (!readLine()) {
+                if (files.length == 0) {
+                    return false;
+                }
+                current.close();
+                current = null;
+                continue;
+            }
+            if (lineEnd == lineStart) {
+                continue; // Linha em branco
+            }
+
+            if (files.length > 0) {
+                rowsRead[nextFile - 1]++;
+            }
+            if (sideOutput != null) {
+                sideOutput.write(buf, lineStart, lineEnd - lineStart);
+                sideOutput.write('\n');
+            }
+            decode(row);
+            return true;
+        }
+    }
+
+    @Override
+    public String currentLine() {
+        return new String(buf, lineStart, lineEnd - lineStart);
+    }
+
+    long rowsRead(File file) {
+        for (int i = 0; i < files.length; i++) {
+            if (files[i].equals(file)) {
+                return rowsRead[i];
+            }
+        }
+        return 0;
+    }
+
+    private boolean openNext() throws IOException {
+        if (nextFile >= files.length) {
+            return false;
+        }
+        File file = files[nextFile++];
+        System.out.println("➕ Adicionando: " + file.getName());
+        current = new FileReader(file);
+        pos = limit = scan = 0;
+        eof = false;
+
+        if (readLine() && sideOutput != null && !headerWritten) { // Pula cabeçalho
+            sideOutput.write(buf, lineStart, lineEnd - lineStart);
+            sideOutput.write('\n');
+            headerWritten = true;
+        }
+        return true;
+    }
+
+    // Localiza a próxima linha no buffer e marca o início e o fim de cada campo
+    private boolean readLine() throws IOException {
+        while (true) {
+            while (scan < limit && buf[scan] != '\n') {
+                scan++;
+            }
+            if (scan < limit) {
+                lineStart = pos;
+                lineEnd = scan;
+                pos = ++scan;
+                break;
+            }
+            if (eof) {
+                if (pos == limit) {
+                    return false;
+                }
+                lineStart = pos;
+                lineEnd = limit;
+                pos = scan = limit;
+                break;
+            }
+            fill();
+        }
+
+        if (lineEnd > lineStart && buf[lineEnd - 1] == '\r') {
+            lineEnd--;
+        }
+
+        fieldCount = 0;
+        int start = lineStart;
+        for (int i = lineStart; i <= lineEnd; i++) {
+            if (i == lineEnd || buf[i] == ';') {
+                if (fieldCount < MAX_FIELDS) {
+                    fieldStart[fieldCount] = start;
+                    fieldEnd[fieldCount] = i;
+                }
+                fieldCount++;
+                start = i + 1;
+            }
+        }
+        return true;
+    }
+
+    private void fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            limit -= pos;
+            scan -= pos;
+            pos = 0;
+        }
+        if (limit == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2); // Linha maior que o buffer
+        }
+        int read = current.read(buf, limit, buf.length - limit);
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private void decode(FinancialRow row) {
+        row.error = null;
+        if (fieldCount < FIELD_COUNT) {
+            row.error = "Linha ignorada";
+            return;
+        }
+
+        row.reportEpochDay = DateDecoder.parseEpochDay(chars, fieldStart[0], fieldEnd[0]);
+        if (row.reportEpochDay == Integer.MIN_VALUE) {
+            row.error = "Data inválida";
+            return;
+        }
+
+        row.operatorCode = text(fieldStart[1], fieldEnd[1]);
+        row.account = text(fieldStart[2], fieldEnd[2]);
+        row.description = text(fieldStart[3], fieldEnd[3]);
+
+        long consolidated = parseDecimal(fieldStart[4], fieldEnd[4]);
+        if (consolidated == Long.MIN_VALUE || decimalScale != 0 || consolidated != (int) consolidated) {
+            row.error = "Indicador de consolidado inválido";
+            return;
+        }
+        row.consolidated = (int) consolidated;
+
+        long balance = parseDecimal(fieldStart[5], fieldEnd[5]);
+        if (balance == Long.MIN_VALUE) {
+            System.err.println("⚠️ Erro ao converter o valor: " + new String(buf, fieldStart[5], fieldEnd[5] - fieldStart[5]));
+            balance = 0; // Evita falha ao inserir dados
+            decimalScale = 0;
+        }
+        row.balanceUnscaled = balance;
+        row.balanceScale = decimalScale;
+    }
+
+    // Número no formato brasileiro ("1.234,56"): '.' é ignorado e ',' separa as casas decimais.
+    // Devolve o valor sem escala e grava a escala em decimalScale; Long.MIN_VALUE se inválido.
+    private long parseDecimal(int start, int end) {
+        long value = 0;
+        int digits = 0;
+        int scale = -1;
+        boolean negative = false;
+        boolean started = false;
+        for (int i = start; i < end; i++) {
+            char c = buf[i];
+            if (c >= '0' && c <= '9') {
+                if (++digits > 18) {
+                    return Long.MIN_VALUE;
+                }
+                value = value * 10 + (c - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+                started = true;
+            } else if (c == ',' && scale < 0) {
+                scale = 0;
+                started = true;
+            } else if (c == '.') {
+                started = true;
+            } else if ((c == '-' || c == '+') && !started) {
+                negative = c == '-';
+                started = true;
+            } else if (c != '"' && c > ' ') {
+                return Long.MIN_VALUE;
+            }
+        }
+        if (digits == 0) {
+            return Long.MIN_VALUE;
+        }
+        decimalScale = Math.max(scale, 0);
+        return negative ? -value : value;
+    }
+
+    // Texto sem aspas e sem espaços nas pontas, reaproveitando Strings já vistas
+    private String text(int start, int end) {
+        while (start < end && (buf[start] <= ' ' || buf[start] == '"')) {
+            start++;
+        }
+        while (end > start && (buf[end - 1] <= ' ' || buf[end - 1] == '"')) {
+            end--;
+        }
+        for (int i = start; i < end; i++) {
+            if (buf[i] == '"') {
+                // Aspas no meio do campo: caminho lento, igual ao replace("\"", "").trim()
+                return new String(buf, start, end - start).replace("\"", "").trim();
+            }
+        }
+        return strings.get(buf, start, end);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (current != null) {
+                current.close();
+            }
+        } finally {
+            if (sideOutput != null) {
+                sideOutput.close();
+            }
+        }
+    }
+
+    // Cache de Strings com endereçamento direto: em colisão, a entrada antiga é substituída
+    private static final class StringCache {
+        private final String[] table;
+        private final int mask;
+
+        StringCache(int size) {
+            this.table = new String[size];
+            this.mask = size - 1;
+        }
+
+        String get(char[] chars, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + chars[i];
+            }
+            int index = (hash ^ (hash >>> 16)) & mask;
+            String cached = table[index];
+            if (cached != null && matches(cached, chars, start, end)) {
+                return cached;
+            }
+            String value = new String(chars, start, end - start);
+            table[index] = value;
+            return value;
+        }
+
+        private static boolean matches(String s, char[] chars, int start, int end) {
+            if (s.length() != end - start) {
+                return false;
+            }
+            for (int i = 0; i < s.length(); i++) {
+                if (s.charAt(i) != chars[start + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.ans;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.*;
+
+// Partições trimestrais de financial_reports (PARTITION BY RANGE (report_date), uma por trimestre:
+// financial_reports_<ano>_q<n>). As cargas vão para tabelas de staging fora da tabela particionada e
+// a publicação troca as partições dos trimestres recarregados com DETACH/DROP + ATTACH, na transação
+// de quem chamou: quem consulta continua vendo os dados antigos até o COMMIT.
+// As stagings são UNLOGGED e sem índices nem constraints: a carga não gera WAL nem manutenção de índice
+// linha a linha. Na publicação a tabela passa a LOGGED, o índice é criado de uma vez e só então
+// ela entra na tabela particionada (-Dans.staging.unlogged=false cria stagings comuns).
+final class FinancialPartitions {
+    private static final String PARENT = TableSpec.FINANCIAL_REPORTS.name();
+    private static final boolean UNLOGGED =
+            Boolean.parseBoolean(System.getProperty("ans.staging.unlogged", "true"));
+
+    private FinancialPartitions() {
+    }
+
+    static String partitionName(int year, int quarter) {
+        return PARENT + "_" + year + "_q" + quarter;
+    }
+
+    static String stagingName(int year, int index) {
+        return PARENT + "_load_" + year + "_" + index;
+    }
+
+    static LocalDate quarterStart(int year, int quarter) {
+        if (quarter < 1 || quarter > 4) {
+            throw new IllegalArgumentException("Trimestre inválido: " + quarter);
+        }
+        return LocalDate.of(year, (quarter - 1) * 3 + 1, 1);
+    }
+
+    // Cria a staging com as colunas de financial_reports; uma sobra de execução interrompida é recriada
+    static TableSpec createStaging(Connection conn, String name) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS " + name);
+            stmt.execute(createStagingSql(name, UNLOGGED));
+        }
+        return TableSpec.FINANCIAL_REPORTS.withName(name);
+    }
+
+    // Só as colunas e defaults: o índice vem depois da carga e o CHECK do trimestre na publicação
+    static String createStagingSql(String name, boolean unlogged) {
+        return "CREATE " + (unlogged ? "UNLOGGED " : "") + "TABLE " + name + " (LIKE " + PARENT + " INCLUDING DEFAULTS)";
+    }
+
+    // Mesmo índice de financial_reports; criado na staging, é adotado pelo ATTACH em vez de recriado
+    static String indexSql(String table) {
+        return "CREATE INDEX " + indexName(table) + " ON " + table + " (operator_code, report_date)";
+    }
+
+    static String indexName(String table) {
+        return table + "_operator_idx";
+    }
+
+    static void dropStagings(Connection conn, Collection<String> names) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String name : names) {
+                stmt.execute("DROP TABLE IF EXISTS " + name);
+            }
+        }
+    }
+
+    // Substitui as partições dos trimestres indicados pelo conteúdo das stagings, que são consumidas.
+    // Uma staging com um único trimestre vira a partição (só metadados); nos demais casos, como o CSV
+    // consolidado do ano, as linhas são copiadas para uma tabela por trimestre. Linhas fora dos
+    // trimestres recarregados são descartadas, para não apagar partições que não fazem parte da carga.
+    // O rollup acumulado durante a carga é gravado em seguida, para acompanhar sempre as partições.
+    static void publish(Connection conn, int year, Collection<Integer> quarters, List<String> stagings,
+                        QuarterlyRollup rollup) throws SQLException {
+        Map<String, Map<Integer, Long>> contents = new LinkedHashMap<>();
+        long discarded = 0;
+        for (String staging : stagings) {
+            Map<Integer, Long> counts = quartersIn(conn, staging, year);
+            contents.put(staging, counts);
+            for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+                if (!quarters.contains(entry.getKey())) {
+                    discarded += entry.getValue();
+                }
+            }
+        }
+        if (discarded > 0) {
+            System.err.println("⚠️ " + discarded + " linhas fora dos trimestres recarregados de " + year + " descartadas");
+        }
+
+        Set<String> consumed = new HashSet<>();
+        for (int quarter : new TreeSet<>(quarters)) {
+            List<String> sources = new ArrayList<>();
+            contents.forEach((staging, counts) -> {
+                if (counts.containsKey(quarter)) {
+                    sources.add(staging);
+                }
+            });
+
+            String replacement;
+            if (sources.size() == 1 && contents.get(sources.get(0)).size() == 1) {
+                replacement = sources.get(0);
+                consumed.add(replacement);
+            } else {
+                replacement = partitionName(year, quarter) + "_new";
+                copyQuarter(conn, year, quarter, sources, replacement);
+            }
+            swap(conn, year, quarter, replacement);
+        }
+
+        List<String> leftovers = new ArrayList<>(stagings);
+        leftovers.removeAll(consumed);
+        dropStagings(conn, leftovers);
+        System.out.println("🔁 Partições trocadas em " + year + ": " + new TreeSet<>(quarters));
+        rollup.replace(conn, year, quarters);
+    }
+
+    // Linhas da staging por trimestre do ano (0 = outro ano)
+    private static Map<Integer, Long> quartersIn(Connection conn, String staging, int year) throws SQLException {
+        Map<Integer, Long> counts = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT EXTRACT(YEAR FROM report_date)::int, EXTRACT(QUARTER FROM report_date)::int, COUNT(*) " +
+                             "FROM " + staging + " GROUP BY 1, 2")) {
+            while (rs.next()) {
+                int quarter = rs.getInt(1) == year ? rs.getInt(2) : 0;
+                counts.merge(quarter, rs.getLong(3), Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    private static void copyQuarter(Connection conn, int year, int quarter, List<String> sources, String target)
+            throws SQLException {
+        createStaging(conn, target);
+        LocalDate start = quarterStart(year, quarter);
+        String columns = TableSpec.FINANCIAL_REPORTS.columnList();
+        for (String source : sources) {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO " + target + " (" + columns + ") SELECT " + columns + " FROM " + source +
+                            " WHERE report_date >= ? AND report_date < ?")) {
+                pstmt.setDate(1, Date.valueOf(start));
+                pstmt.setDate(2, Date.valueOf(start.plusMonths(3)));
+                pstmt.executeUpdate();
+            }
+        }
+    }
+
+    // O CHECK com os limites do trimestre deixa o ATTACH dispensar a varredura da tabela. O trabalho
+    // pesado (operadoras, SET LOGGED e índice) acontece antes do DETACH, que bloqueia financial_reports
+    // até o COMMIT; a partição antiga é desanexada e removida em seguida. O SET LOGGED reescreve a
+    // tabela e todos os seus índices, por isso o índice só é criado depois dele.
+    private static void swap(Connection conn, int year, int quarter, String table) throws SQLException {
+        String partition = partitionName(year, quarter);
+        String bounds = bounds(year, quarter);
+        LocalDate start = quarterStart(year, quarter);
+
+        reportUnknownOperators(conn, table, partition);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + table + " ADD CONSTRAINT " + partition + "_range CHECK (" +
+                    "report_date >= DATE '" + start + "' AND report_date < DATE '" + start.plusMonths(3) + "')");
+            if (UNLOGGED) {
+                stmt.execute("ALTER TABLE " + table + " SET LOGGED"); // Uma única escrita sequencial no WAL
+            }
+            stmt.execute(indexSql(table));
+            if (isAttached(conn, partition)) {
+                stmt.execute("ALTER TABLE " + PARENT + " DETACH PARTITION " + partition);
+            }
+            stmt.execute("DROP TABLE IF EXISTS " + partition);
+            stmt.execute("ALTER TABLE " + table + " RENAME TO " + partition);
+            stmt.execute("ALTER TABLE " + PARENT + " ATTACH PARTITION " + partition + " FOR VALUES " + bounds);
+            stmt.execute("ALTER INDEX " + indexName(table) + " RENAME TO " + indexName(partition));
+        }
+    }
+
+    // financial_reports não tem FOREIGN KEY para operators: o cadastro só traz operadoras ativas e os
+    // trimestres antigos citam operadoras já canceladas. A conferência é feita de uma vez por partição
+    // (anti-join) e só avisa, sem descartar linhas que já entraram no rollup.
+    private static void reportUnknownOperators(Connection conn, String table, String partition) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT COUNT(*), COUNT(DISTINCT f.operator_code) FROM " + table + " f " +
+                             "WHERE f.operator_code IS NOT NULL AND NOT EXISTS " +
+                             "(SELECT 1 FROM operators o WHERE o.ans_registration = f.operator_code)")) {
+            if (rs.next() && rs.getLong(1) > 0) {
+                System.err.println("⚠️ " + partition + ": " + rs.getLong(1) + " linhas de " + rs.getLong(2) +
+                        " operadoras fora do cadastro de ativas");
+            }
+        }
+    }
+
+    // Limites da partição: do primeiro dia do trimestre (inclusive) ao do seguinte (exclusive)
+    static String bounds(int year, int quarter) {
+        LocalDate start = quarterStart(year, quarter);
+        return "FROM ('" + start + "') TO ('" + start.plusMonths(3) + "')";
+    }
+
+    private static boolean isAttached(Connection conn, String partition) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT 1 FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = ?::regclass AND c.relname = ?")) {
+            pstmt.setString(1, PARENT);
+            pstmt.setString(2, partition);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+}
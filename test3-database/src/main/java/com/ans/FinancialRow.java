@@ -0,0 +1,40 @@
+package com.ans;
+
+import java.math.BigDecimal;
+
+// Linha de financial_reports em tipos primitivos, reaproveitada pelo FinancialCsvParser a cada leitura.
+// A data fica em dias desde 1970-01-01 e o saldo como valor sem escala + escala (ex.: 123456 / 2).
+final class FinancialRow {
+    int reportEpochDay;
+    String operatorCode;
+    String account;
+    String description;
+    int consolidated;
+    long balanceUnscaled;
+    int balanceScale;
+    // Preenchido quando a linha não pode ser importada
+    String error;
+
+    void copyFrom(FinancialRow other) {
+        reportEpochDay = other.reportEpochDay;
+        operatorCode = other.operatorCode;
+        account = other.account;
+        description = other.description;
+        consolidated = other.consolidated;
+        balanceUnscaled = other.balanceUnscaled;
+        balanceScale = other.balanceScale;
+        error = other.error;
+    }
+
+    // Conversão para o caminho genérico (Object[] na ordem de TableSpec.FINANCIAL_REPORTS)
+    Object[] toValues() {
+        return new Object[]{
+                DateDecoder.toDate(reportEpochDay),
+                operatorCode,
+                account,
+                description,
+                consolidated,
+                BigDecimal.valueOf(balanceUnscaled, balanceScale)
+        };
+    }
+}
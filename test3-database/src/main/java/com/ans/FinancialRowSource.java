@@ -0,0 +1,15 @@
+package com.ans;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Fonte de linhas de financial_reports já decodificadas (FinancialCsvParser ou MappedCsvReader)
+interface FinancialRowSource extends Closeable {
+
+    // Preenche row com a próxima linha; devolve false no fim dos dados.
+    // Linhas inválidas voltam com row.error preenchido.
+    boolean next(FinancialRow row) throws IOException;
+
+    // Texto da última linha devolvida, para mensagens de erro
+    String currentLine();
+}
@@ -0,0 +1,127 @@
+package com.ans;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Registro dos arquivos de origem já importados (tabela import_manifest): tamanho,
+// data de modificação, SHA-256 e quantidade de linhas. Arquivos idênticos ao último
+// import são pulados; o hash só é recalculado quando tamanho ou data mudam.
+class ImportManifest {
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private record Entry(long size, long modifiedAt, String sha256) {
+    }
+
+    private final Connection conn;
+    private final boolean fullReload;
+    private final Map<File, Entry> current = new ConcurrentHashMap<>();
+
+    ImportManifest(Connection conn, boolean fullReload) {
+        this.conn = conn;
+        this.fullReload = fullReload;
+    }
+
+    boolean hasChanged(File file) throws SQLException, IOException {
+        return !changedFiles(new File[]{file}).isEmpty();
+    }
+
+    List<File> changedFiles(File[] files) throws SQLException, IOException {
+        List<File> changed = new ArrayList<>();
+        for (File file : files) {
+            Entry recorded = fullReload ? null : find(file.getName());
+            long size = file.length();
+            long modifiedAt = file.lastModified();
+
+            if (recorded != null && recorded.size() == size && recorded.modifiedAt() == modifiedAt) {
+                current.put(file, recorded);
+                continue;
+            }
+
+            Entry entry = new Entry(size, modifiedAt, sha256(file));
+            current.put(file, entry);
+            if (recorded != null && recorded.size() == size && recorded.sha256().equals(entry.sha256())) {
+                // Mesmo conteúdo com outra data (ex.: baixado novamente): só atualiza a data
+                touch(file.getName(), modifiedAt);
+                continue;
+            }
+            changed.add(file);
+        }
+        return changed;
+    }
+
+    // Deve ser chamado na mesma transação que gravou os dados do arquivo
+    void record(Connection target, File file, long rowCount) throws SQLException, IOException {
+        Entry entry = current.get(file);
+        if (entry == null) {
+            entry = new Entry(file.length(), file.lastModified(), sha256(file));
+        }
+
+        String sql = "INSERT INTO import_manifest (source_file, file_size, modified_at, sha256, row_count, imported_at) " +
+                "VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP) " +
+                "ON CONFLICT (source_file) DO UPDATE SET file_size = EXCLUDED.file_size, " +
+                "modified_at = EXCLUDED.modified_at, sha256 = EXCLUDED.sha256, " +
+                "row_count = EXCLUDED.row_count, imported_at = EXCLUDED.imported_at";
+        try (PreparedStatement pstmt = target.prepareStatement(sql)) {
+            pstmt.setString(1, file.getName());
+            pstmt.setLong(2, entry.size());
+            pstmt.setTimestamp(3, new Timestamp(entry.modifiedAt()));
+            pstmt.setString(4, entry.sha256());
+            pstmt.setLong(5, rowCount);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private Entry find(String sourceFile) throws SQLException {
+        String sql = "SELECT file_size, modified_at, sha256 FROM import_manifest WHERE source_file = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, sourceFile);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new Entry(rs.getLong(1), rs.getTimestamp(2).getTime(), rs.getString(3));
+            }
+        }
+    }
+
+    private void touch(String sourceFile, long modifiedAt) throws SQLException {
+        String sql = "UPDATE import_manifest SET modified_at = ? WHERE source_file = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setTimestamp(1, new Timestamp(modifiedAt));
+            pstmt.setString(2, sourceFile);
+            pstmt.executeUpdate();
+        }
+    }
+
+    static String sha256(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int len;
+            while ((len = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, len);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,328 @@
+package com.ans;
+
+import jdk.jfr.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Métricas por etapa da importação: downloads, extração dos ZIPs, leitura dos CSVs, lotes enviados
+// ao banco, sobreposição entre parser e gravação e tempo total por ano. Cada medição vira um evento
+// do JDK Flight Recorder (visível com -XX:StartFlightRecording, categoria "ANS") e entra no resumo
+// impresso no fim do ANSDataImporter, que também pode ser gravado em JSON (-Dans.metrics.json=arquivo).
+final class ImportMetrics {
+    // Limites superiores (µs) do histograma de latência dos lotes; o último bucket é o excedente
+    static final long[] BATCH_BUCKETS_MICROS = {250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000, 1_000_000};
+
+    private static final Queue<Download> DOWNLOADS = new ConcurrentLinkedQueue<>();
+    private static final Queue<Extraction> EXTRACTIONS = new ConcurrentLinkedQueue<>();
+    private static final Queue<Load> LOADS = new ConcurrentLinkedQueue<>();
+    private static final Queue<Period> PERIODS = new ConcurrentLinkedQueue<>();
+    private static final Queue<Pipeline> PIPELINES = new ConcurrentLinkedQueue<>();
+    private static final LongAdder[] BATCH_HISTOGRAM = new LongAdder[BATCH_BUCKETS_MICROS.length + 1];
+    private static final LongAdder BATCH_NANOS = new LongAdder();
+    private static final LongAdder BATCH_ROWS = new LongAdder();
+    private static final AtomicLong BATCH_MAX_NANOS = new AtomicLong();
+
+    static {
+        for (int i = 0; i < BATCH_HISTOGRAM.length; i++) {
+            BATCH_HISTOGRAM[i] = new LongAdder();
+        }
+    }
+
+    record Download(String file, long bytes, long nanos) {
+    }
+
+    record Extraction(String archive, int entries, long bytes, long nanos) {
+    }
+
+    record Load(String table, String source, long rows, long rejected, long nanos) {
+    }
+
+    record Period(int year, String quarters, long rows, long nanos) {
+    }
+
+    // Tempo que o parser ficou parado com a fila cheia e que a gravação ficou sem lote para enviar
+    record Pipeline(String table, long parserWaitNanos, long writerIdleNanos, long nanos) {
+    }
+
+    private ImportMetrics() {
+    }
+
+    // Eventos JFR; o início é marcado na criação e a duração vai também para o resumo
+    @Category({"ANS", "Importação"})
+    abstract static class StageEvent extends Event {
+        private final transient long started = System.nanoTime();
+
+        StageEvent() {
+            begin();
+        }
+
+        long finish() {
+            end();
+            commit();
+            return System.nanoTime() - started;
+        }
+    }
+
+    @Name("com.ans.Download")
+    @Label("Download")
+    static final class DownloadEvent extends StageEvent {
+        @Label("Arquivo")
+        String file;
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("com.ans.ZipExtraction")
+    @Label("Extração de ZIP")
+    static final class ExtractionEvent extends StageEvent {
+        @Label("Arquivo")
+        String archive;
+        @Label("CSVs")
+        int entries;
+        @Label("Bytes extraídos")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("com.ans.CsvLoad")
+    @Label("Leitura e carga de CSV")
+    static final class LoadEvent extends StageEvent {
+        @Label("Tabela")
+        String table;
+        @Label("Origem")
+        String source;
+        @Label("Linhas")
+        long rows;
+        @Label("Linhas rejeitadas")
+        long rejected;
+    }
+
+    @Name("com.ans.Batch")
+    @Label("Lote enviado ao banco")
+    @Description("executeBatch do INSERT ou envio de um bloco do COPY")
+    static final class BatchEvent extends StageEvent {
+        @Label("Tabela")
+        String table;
+        @Label("Linhas")
+        int rows;
+    }
+
+    @Name("com.ans.Period")
+    @Label("Importação do ano")
+    static final class PeriodEvent extends StageEvent {
+        @Label("Ano")
+        int year;
+        @Label("Trimestres")
+        String quarters;
+        @Label("Linhas")
+        long rows;
+    }
+
+    static void downloaded(DownloadEvent event, String file, long bytes) {
+        event.file = file;
+        event.bytes = bytes;
+        DOWNLOADS.add(new Download(file, bytes, event.finish()));
+    }
+
+    static void extracted(ExtractionEvent event, String archive, int entries, long bytes) {
+        event.archive = archive;
+        event.entries = entries;
+        event.bytes = bytes;
+        EXTRACTIONS.add(new Extraction(archive, entries, bytes, event.finish()));
+    }
+
+    static void loaded(LoadEvent event, String table, String source, long rows, long rejected) {
+        event.table = table;
+        event.source = source;
+        event.rows = rows;
+        event.rejected = rejected;
+        LOADS.add(new Load(table, source, rows, rejected, event.finish()));
+    }
+
+    // Devolve a duração do lote, usada também pelo BatchSizeController
+    static long batch(BatchEvent event, String table, int rows) {
+        event.table = table;
+        event.rows = rows;
+        long nanos = event.finish();
+        BATCH_HISTOGRAM[bucket(nanos / 1_000)].increment();
+        BATCH_NANOS.add(nanos);
+        BATCH_ROWS.add(rows);
+        BATCH_MAX_NANOS.accumulateAndGet(nanos, Math::max);
+        return nanos;
+    }
+
+    static void period(PeriodEvent event, int year, Collection<Integer> quarters, long rows) {
+        event.year = year;
+        event.quarters = new TreeSet<>(quarters).toString();
+        event.rows = rows;
+        PERIODS.add(new Period(year, event.quarters, rows, event.finish()));
+    }
+
+    static void pipeline(String table, long parserWaitNanos, long writerIdleNanos, long nanos) {
+        PIPELINES.add(new Pipeline(table, parserWaitNanos, writerIdleNanos, nanos));
+    }
+
+    static int bucket(long micros) {
+        for (int i = 0; i < BATCH_BUCKETS_MICROS.length; i++) {
+            if (micros <= BATCH_BUCKETS_MICROS[i]) {
+                return i;
+            }
+        }
+        return BATCH_BUCKETS_MICROS.length;
+    }
+
+    static void reset() {
+        DOWNLOADS.clear();
+        EXTRACTIONS.clear();
+        LOADS.clear();
+        PERIODS.clear();
+        PIPELINES.clear();
+        for (LongAdder adder : BATCH_HISTOGRAM) {
+            adder.reset();
+        }
+        BATCH_NANOS.reset();
+        BATCH_ROWS.reset();
+        BATCH_MAX_NANOS.set(0);
+    }
+
+    static void printSummary() {
+        System.out.println("\n⏱️ Métricas por etapa:");
+        for (Download download : DOWNLOADS) {
+            System.out.printf("- Download %s: %.1f MB a %.1f MB/s%n", download.file(),
+                    download.bytes() / 1e6, perSecond(download.bytes(), download.nanos()) / 1e6);
+        }
+        for (Extraction extraction : EXTRACTIONS) {
+            System.out.printf("- Extração %s: %d CSV(s) em %d ms%n", extraction.archive(), extraction.entries(),
+                    extraction.nanos() / 1_000_000);
+        }
+        for (Load load : LOADS) {
+            System.out.printf("- Carga %s (%s): %d linhas, %d rejeitadas, %.0f linhas/s%n", load.source(),
+                    load.table(), load.rows(), load.rejected(), perSecond(load.rows(), load.nanos()));
+        }
+        long batches = Arrays.stream(BATCH_HISTOGRAM).mapToLong(LongAdder::sum).sum();
+        if (batches > 0) {
+            System.out.printf("- Lotes: %d, média %.2f ms, máximo %.2f ms%n", batches,
+                    BATCH_NANOS.sum() / 1e6 / batches, BATCH_MAX_NANOS.get() / 1e6);
+        }
+        for (Pipeline pipeline : PIPELINES) {
+            System.out.printf("- Pipeline %s: parser esperou %d ms pelo banco, banco esperou %d ms pelo parser " +
+                            "(%d ms no total)%n", pipeline.table(), pipeline.parserWaitNanos() / 1_000_000,
+                    pipeline.writerIdleNanos() / 1_000_000, pipeline.nanos() / 1_000_000);
+        }
+        for (Period period : PERIODS) {
+            System.out.printf("- Ano %d %s: %d linhas em %.1f s%n", period.year(), period.quarters(), period.rows(),
+                    period.nanos() / 1e9);
+        }
+    }
+
+    // Grava o resumo em JSON se -Dans.metrics.json estiver definido
+    static void writeJsonIfRequested() throws IOException {
+        String path = System.getProperty("ans.metrics.json");
+        if (path != null) {
+            Files.writeString(Path.of(path), toJson(), StandardCharsets.UTF_8);
+            System.out.println("📝 Métricas gravadas em " + path);
+        }
+    }
+
+    static String toJson() {
+        StringBuilder json = new StringBuilder("{\n  \"downloads\": [");
+        String separator = "";
+        for (Download download : DOWNLOADS) {
+            json.append(separator).append("\n    {\"file\": ").append(quote(download.file()))
+                    .append(", \"bytes\": ").append(download.bytes())
+                    .append(", \"millis\": ").append(download.nanos() / 1_000_000)
+                    .append(", \"bytesPerSecond\": ").append(Math.round(perSecond(download.bytes(), download.nanos())))
+                    .append('}');
+            separator = ",";
+        }
+        json.append("\n  ],\n  \"extractions\": [");
+        separator = "";
+        for (Extraction extraction : EXTRACTIONS) {
+            json.append(separator).append("\n    {\"archive\": ").append(quote(extraction.archive()))
+                    .append(", \"entries\": ").append(extraction.entries())
+                    .append(", \"bytes\": ").append(extraction.bytes())
+                    .append(", \"millis\": ").append(extraction.nanos() / 1_000_000)
+                    .append('}');
+            separator = ",";
+        }
+        json.append("\n  ],\n  \"loads\": [");
+        separator = "";
+        for (Load load : LOADS) {
+            json.append(separator).append("\n    {\"table\": ").append(quote(load.table()))
+                    .append(", \"source\": ").append(quote(load.source()))
+                    .append(", \"rows\": ").append(load.rows())
+                    .append(", \"rejected\": ").append(load.rejected())
+                    .append(", \"millis\": ").append(load.nanos() / 1_000_000)
+                    .append(", \"rowsPerSecond\": ").append(Math.round(perSecond(load.rows(), load.nanos())))
+                    .append('}');
+            separator = ",";
+        }
+        json.append("\n  ],\n  \"batches\": {\"rows\": ").append(BATCH_ROWS.sum())
+                .append(", \"totalMillis\": ").append(BATCH_NANOS.sum() / 1_000_000)
+                .append(", \"maxMicros\": ").append(BATCH_MAX_NANOS.get() / 1_000)
+                .append(", \"histogram\": [");
+        for (int i = 0; i < BATCH_HISTOGRAM.length; i++) {
+            json.append(i == 0 ? "" : ", ").append("{\"leMicros\": ")
+                    .append(i < BATCH_BUCKETS_MICROS.length ? String.valueOf(BATCH_BUCKETS_MICROS[i]) : "null")
+                    .append(", \"count\": ").append(BATCH_HISTOGRAM[i].sum()).append('}');
+        }
+        json.append("]},\n  \"pipelines\": [");
+        separator = "";
+        for (Pipeline pipeline : PIPELINES) {
+            json.append(separator).append("\n    {\"table\": ").append(quote(pipeline.table()))
+                    .append(", \"parserWaitMillis\": ").append(pipeline.parserWaitNanos() / 1_000_000)
+                    .append(", \"writerIdleMillis\": ").append(pipeline.writerIdleNanos() / 1_000_000)
+                    .append(", \"millis\": ").append(pipeline.nanos() / 1_000_000)
+                    .append('}');
+            separator = ",";
+        }
+        json.append("\n  ],\n  \"periods\": [");
+        separator = "";
+        for (Period period : PERIODS) {
+            json.append(separator).append("\n    {\"year\": ").append(period.year())
+                    .append(", \"quarters\": ").append(quote(period.quarters()))
+                    .append(", \"rows\": ").append(period.rows())
+                    .append(", \"millis\": ").append(period.nanos() / 1_000_000)
+                    .append('}');
+            separator = ",";
+        }
+        return json.append("\n  ]\n}\n").toString();
+    }
+
+    private static double perSecond(long amount, long nanos) {
+        return nanos == 0 ? 0 : amount * 1e9 / nanos;
+    }
+
+    private static String quote(String text) {
+        if (text == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
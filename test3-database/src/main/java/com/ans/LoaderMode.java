@@ -0,0 +1,41 @@
+package com.ans;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Modo de carga selecionável via -Dans.loader=insert|copy-text|copy-binary
+enum LoaderMode {
+    INSERT("insert"),
+    COPY_TEXT("copy-text"),
+    COPY_BINARY("copy-binary");
+
+    private final String key;
+
+    LoaderMode(String key) {
+        this.key = key;
+    }
+
+    static LoaderMode fromKey(String key) {
+        for (LoaderMode mode : values()) {
+            if (mode.key.equalsIgnoreCase(key.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Modo de carga desconhecido: " + key +
+                " (use insert, copy-text ou copy-binary)");
+    }
+
+    // O controlador de lote só vale para o INSERT; o COPY envia blocos por tamanho em bytes
+    RowLoader open(Connection conn, TableSpec table, BatchSizeController batches) throws SQLException {
+        return switch (this) {
+            case INSERT -> new BatchInsertLoader(conn, table, batches);
+            case COPY_TEXT -> new CopyLoader(conn, table, false);
+            case COPY_BINARY -> new CopyLoader(conn, table, true);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
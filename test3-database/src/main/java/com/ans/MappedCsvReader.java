@@ -0,0 +1,297 @@
+package com.ans;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+// Lê um único CSV grande (ex.: financial_reports_<ano>_consolidated.csv) com vários núcleos: o arquivo
+// é mapeado em memória (FileChannel.map) e dividido em trechos que terminam em fim de linha fora de
+// aspas; cada trecho é decodificado e convertido por um FinancialCsvParser próprio. As linhas chegam
+// em blocos por filas limitadas, na ordem do arquivo (ordered) ou na ordem em que ficam prontas.
+final class MappedCsvReader implements FinancialRowSource {
+    // Um trecho mapeado não passa de 1 GB (o limite do FileChannel.map é 2 GB)
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+    private static final int BLOCK_ROWS = 4096;
+    private static final int BLOCKS_PER_CHUNK = 4;
+    private static final int SCAN_BUFFER = 64 * 1024;
+    private static final Block END = new Block(0);
+
+    private final ExecutorService pool;
+    private final List<BlockingQueue<Block>> queues = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final boolean ordered;
+    private int chunksLeft;
+    private int currentQueue;
+    private Block block;
+    private int position;
+    private String currentLine;
+
+    // Bloco de linhas reaproveitado entre worker e consumidor; volta para a reserva do seu trecho
+    private static final class Block {
+        final FinancialRow[] rows;
+        final String[] errorLines;
+        BlockingQueue<Block> home;
+        int size;
+
+        Block(int capacity) {
+            rows = new FinancialRow[capacity];
+            errorLines = new String[capacity];
+            for (int i = 0; i < capacity; i++) {
+                rows[i] = new FinancialRow();
+            }
+        }
+    }
+
+    MappedCsvReader(File file, int threads, boolean ordered, Charset charset) throws IOException {
+        this.ordered = ordered;
+        List<long[]> chunks;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int count = (int) Math.max(Math.max(1, threads), (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+            chunks = chunks(channel, count);
+        }
+
+        this.chunksLeft = chunks.size();
+        // No modo ordenado cada trecho tem sua fila; senão todos dividem a mesma. Cada trecho tem
+        // sua própria reserva de blocos, para que os trechos adiantados não esgotem a do próximo.
+        BlockingQueue<Block> shared = ordered ? null
+                : new ArrayBlockingQueue<>(chunks.size() * (BLOCKS_PER_CHUNK + 1));
+        for (int i = 0; i < chunks.size(); i++) {
+            queues.add(ordered ? new ArrayBlockingQueue<>(BLOCKS_PER_CHUNK + 1) : shared);
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, chunks.size())), runnable -> {
+            Thread thread = new Thread(runnable, "csv-chunk-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < chunks.size(); i++) {
+            long[] chunk = chunks.get(i);
+            BlockingQueue<Block> queue = queues.get(i);
+            boolean header = i == 0;
+            BlockingQueue<Block> reserve = new ArrayBlockingQueue<>(BLOCKS_PER_CHUNK);
+            for (int j = 0; j < BLOCKS_PER_CHUNK; j++) {
+                Block block = new Block(BLOCK_ROWS);
+                block.home = reserve;
+                reserve.add(block);
+            }
+            pool.submit(() -> parseChunk(file, chunk[0], chunk[1], header, charset, reserve, queue));
+        }
+    }
+
+    // Trechos [início, fim) do arquivo. As divisões aproximadas são contadas em paralelo para saber a
+    // paridade de aspas em cada ponto; cada divisão avança até o primeiro '\n' fora de aspas.
+    static List<long[]> chunks(FileChannel channel, int count) throws IOException {
+        long size = channel.size();
+        long[] tentative = new long[count + 1];
+        for (int i = 0; i <= count; i++) {
+            tentative[i] = size * i / count;
+        }
+
+        long[] quotes;
+        try {
+            quotes = IntStream.range(0, count).parallel().mapToLong(i -> {
+                try {
+                    return countQuotes(channel.map(FileChannel.MapMode.READ_ONLY,
+                            tentative[i], tentative[i + 1] - tentative[i]));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).toArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        List<long[]> chunks = new ArrayList<>();
+        long start = 0;
+        long parity = 0;
+        for (int i = 1; i <= count; i++) {
+            parity += quotes[i - 1];
+            long end = i == count ? size : Math.max(start, nextLineStart(channel, tentative[i], (parity & 1) == 1));
+            if (end > start) {
+                chunks.add(new long[]{start, end});
+            }
+            start = end;
+        }
+        if (chunks.isEmpty()) {
+            chunks.add(new long[]{0, 0});
+        }
+        return chunks;
+    }
+
+    private static long countQuotes(MappedByteBuffer buffer) {
+        long quotes = 0;
+        int limit = buffer.limit();
+        for (int i = 0; i < limit; i++) {
+            if (buffer.get(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes;
+    }
+
+    // Posição logo após o primeiro '\n' fora de aspas a partir de from (ou o fim do arquivo)
+    private static long nextLineStart(FileChannel channel, long from, boolean insideQuotes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER);
+        long position = from;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    insideQuotes = !insideQuotes;
+                } else if (b == '\n' && !insideQuotes) {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    private Void parseChunk(File file, long start, long end, boolean header, Charset charset,
+                            BlockingQueue<Block> reserve, BlockingQueue<Block> queue) throws Exception {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            try (FinancialCsvParser parser = new FinancialCsvParser(
+                    new InputStreamReader(new BufferInputStream(mapped), charset), header)) {
+                Block current = reserve.take();
+                current.size = 0;
+                long rows = 0;
+                while (failure.get() == null) {
+                    FinancialRow row = current.rows[current.size];
+                    if (!parser.next(row)) {
+                        break;
+                    }
+                    current.errorLines[current.size] = row.error == null ? null : parser.currentLine();
+                    rows++;
+                    if (++current.size == BLOCK_ROWS) {
+                        queue.put(current);
+                        current = reserve.take();
+                        current.size = 0;
+                    }
+                }
+                rowsRead.addAndGet(rows);
+                if (current.size > 0) {
+                    queue.put(current);
+                } else {
+                    reserve.put(current);
+                }
+            }
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+            throw e;
+        } finally {
+            queue.put(END);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean next(FinancialRow row) throws IOException {
+        while (block == null || position == block.size) {
+            if (block != null) {
+                block.home.add(block);
+                block = null;
+            }
+            if (chunksLeft == 0) {
+                checkFailure();
+                return false;
+            }
+            Block taken;
+            try {
+                taken = queues.get(currentQueue).take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrompido ao ler " + e.getMessage(), e);
+            }
+            if (taken == END) {
+                chunksLeft--;
+                if (ordered) {
+                    currentQueue++;
+                }
+                checkFailure();
+                continue;
+            }
+            block = taken;
+            position = 0;
+        }
+
+        row.copyFrom(block.rows[position]);
+        currentLine = block.errorLines[position];
+        position++;
+        return true;
+    }
+
+    // Só as linhas com erro guardam o texto original
+    @Override
+    public String currentLine() {
+        return currentLine;
+    }
+
+    long rowsRead() {
+        return rowsRead.get();
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable error = failure.get();
+        if (error instanceof IOException io) {
+            throw io;
+        }
+        if (error != null) {
+            throw new IOException("Falha ao ler trecho do CSV: " + error.getMessage(), error);
+        }
+    }
+
+    @Override
+    public void close() {
+        failure.compareAndSet(null, new IOException("Leitura encerrada"));
+        pool.shutdownNow(); // Workers bloqueados em filas cheias são interrompidos
+    }
+
+    // InputStream sobre o trecho mapeado, sem cópia para o heap
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, count);
+            return count;
+        }
+    }
+}
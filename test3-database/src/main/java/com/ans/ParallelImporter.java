@@ -0,0 +1,164 @@
+package com.ans;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Importa os CSVs trimestrais de um ano em paralelo, uma conexão do pool por worker.
+// Cada arquivo é carregado e confirmado numa staging própria, invisível para as consultas;
+// o ano só muda quando o coordenador troca as partições, numa única transação com o
+// manifesto. Qualquer falha descarta as stagings e mantém as partições anteriores.
+class ParallelImporter {
+
+    static int importYear(ConnectionPool pool, int year, File[] files, boolean reloadYear,
+                          ImportManifest manifest) throws Exception {
+        int parallelism = Math.min(pool.size(), files.length);
+        System.out.println("\n🔀 Importando " + files.length + " arquivos de " + year +
+                " com " + parallelism + " workers");
+
+        ImportMetrics.PeriodEvent event = new ImportMetrics.PeriodEvent();
+        Set<Integer> quarters = ANSDataImporter.quartersToReplace(files, reloadYear);
+        List<Connection> connections = new ArrayList<>();
+        List<String> staged = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, namedThreads("import-" + year));
+        try {
+            for (int i = 0; i < parallelism; i++) {
+                Connection conn = pool.borrow();
+                connections.add(conn);
+                conn.setAutoCommit(false);
+            }
+
+            Queue<File> pending = new ConcurrentLinkedQueue<>(Arrays.asList(files));
+            Map<File, String> stagings = new LinkedHashMap<>();
+            for (File file : files) {
+                stagings.put(file, FinancialPartitions.stagingName(year, stagings.size()));
+            }
+            staged.addAll(stagings.values());
+            Map<File, Long> rowsRead = new ConcurrentHashMap<>();
+            AtomicBoolean failed = new AtomicBoolean(false);
+            List<Future<Integer>> results = new ArrayList<>();
+            List<QuarterlyRollup> rollups = new ArrayList<>();
+            for (Connection conn : connections) {
+                QuarterlyRollup rollup = new QuarterlyRollup(); // Um por worker, somados no final
+                rollups.add(rollup);
+                results.add(executor.submit(() -> loadPending(conn, pending, stagings, rowsRead, rollup, failed)));
+            }
+
+            int total = 0;
+            Exception failure = null;
+            for (Future<Integer> result : results) {
+                try {
+                    total += result.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof Exception cause ? cause : e;
+                    }
+                }
+            }
+
+            if (failure != null) {
+                System.err.println("❌ Falha ao importar " + year + ", desfazendo o ano inteiro");
+                throw failure;
+            }
+
+            // Troca de partições e registro no manifesto entram na transação do primeiro worker
+            Connection coordinator = connections.get(0);
+            QuarterlyRollup rollup = new QuarterlyRollup();
+            rollups.forEach(rollup::merge);
+            FinancialPartitions.publish(coordinator, year, quarters, new ArrayList<>(stagings.values()), rollup);
+            for (File file : files) {
+                manifest.record(coordinator, file, rowsRead.getOrDefault(file, 0L));
+            }
+            coordinator.commit();
+            staged.clear();
+            ImportMetrics.period(event, year, quarters, total);
+            System.out.println("✔️ " + year + " confirmado: " + total + " registros");
+            return total;
+        } catch (Exception e) {
+            rollbackAll(connections);
+            dropStagings(connections, staged);
+            throw e;
+        } finally {
+            executor.shutdownNow();
+            for (Connection conn : connections) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    System.err.println("⚠️ Erro ao restaurar autocommit: " + e.getMessage());
+                }
+                pool.release(conn);
+            }
+        }
+    }
+
+    // Cada worker consome arquivos da fila até ela esvaziar ou outro worker falhar
+    private static int loadPending(Connection conn, Queue<File> pending, Map<File, String> stagings,
+                                   Map<File, Long> rowsRead, QuarterlyRollup rollup,
+                                   AtomicBoolean failed) throws Exception {
+        int count = 0;
+        File file;
+        while (!failed.get() && (file = pending.poll()) != null) {
+            System.out.println("\n📤 Processando demonstrações financeiras: " + file.getPath());
+            try {
+                TableSpec target = FinancialPartitions.createStaging(conn, stagings.get(file));
+                count += ANSDataImporter.loadFinancialFiles(conn, target, new File[]{file}, null, rowsRead, rollup);
+                conn.commit();
+            } catch (Exception e) {
+                failed.set(true);
+                System.err.println("❌ Erro em " + file.getName() + ": " + e.getMessage());
+                throw e;
+            }
+        }
+        return count;
+    }
+
+    private static void rollbackAll(List<Connection> connections) {
+        for (Connection conn : connections) {
+            try {
+                if (!conn.getAutoCommit()) {
+                    conn.rollback();
+                }
+            } catch (SQLException e) {
+                System.err.println("⚠️ Erro no rollback: " + e.getMessage());
+            }
+        }
+    }
+
+    // Stagings já confirmadas pelos workers não somem com o rollback
+    private static void dropStagings(List<Connection> connections, List<String> staged) {
+        if (staged.isEmpty() || connections.isEmpty()) {
+            return;
+        }
+        try {
+            FinancialPartitions.dropStagings(connections.get(0), staged);
+            connections.get(0).commit();
+        } catch (SQLException e) {
+            System.err.println("⚠️ Erro ao remover stagings: " + e.getMessage());
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,206 @@
+package com.ans;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Separa a leitura/validação das linhas (thread de quem chama) da gravação no banco (thread própria):
+// as linhas seguem em lotes por uma fila limitada e o RowLoader real faz o bind, o executeBatch ou o
+// envio do COPY enquanto o parser já prepara os lotes seguintes. Com a fila cheia o parser espera um
+// lote voltar (backpressure); uma falha de gravação reaparece no próximo addRow ou no finish.
+final class PipelinedLoader implements RowLoader {
+    private static final Batch END = new Batch(0);
+
+    private final RowLoader delegate;
+    private final String table;
+    private final BlockingQueue<Batch> free;
+    private final BlockingQueue<Batch> ready;
+    private final Thread writer;
+    private volatile Throwable failure;
+    private volatile boolean aborted;
+    private Batch current;
+    private long writtenRows;
+    private long producerWaitNanos;
+    private long writerIdleNanos;
+    private final long started = System.nanoTime();
+
+    // Lote reaproveitado: linhas do FinancialCsvParser são copiadas, Object[] seguem por referência
+    private static final class Batch {
+        final FinancialRow[] rows;
+        final Object[][] values;
+        int size;
+
+        Batch(int capacity) {
+            rows = new FinancialRow[capacity];
+            values = new Object[capacity][];
+        }
+    }
+
+    PipelinedLoader(RowLoader delegate, String table, int batchRows, int depth) {
+        this.delegate = delegate;
+        this.table = table;
+        // depth lotes na fila, mais o que o parser preenche e o que está sendo gravado
+        this.free = new ArrayBlockingQueue<>(depth + 2);
+        this.ready = new ArrayBlockingQueue<>(depth + 3);
+        for (int i = 0; i < depth + 2; i++) {
+            free.add(new Batch(batchRows));
+        }
+        this.writer = new Thread(this::write, "db-writer-" + table);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void addRow(Object[] values) throws SQLException, IOException {
+        Batch batch = batch();
+        batch.values[batch.size++] = values;
+        handOff(batch);
+    }
+
+    @Override
+    public void addFinancialRow(FinancialRow row) throws SQLException, IOException {
+        Batch batch = batch();
+        FinancialRow copy = batch.rows[batch.size];
+        if (copy == null) {
+            copy = batch.rows[batch.size] = new FinancialRow();
+        }
+        copy.copyFrom(row);
+        batch.values[batch.size++] = null;
+        handOff(batch);
+    }
+
+    private Batch batch() throws SQLException, IOException {
+        if (current == null) {
+            checkFailure();
+            long waitStarted = System.nanoTime();
+            current = take(free);
+            producerWaitNanos += System.nanoTime() - waitStarted;
+            current.size = 0;
+        }
+        return current;
+    }
+
+    private void handOff(Batch batch) throws IOException {
+        if (batch.size == batch.rows.length) {
+            put(batch);
+            current = null;
+        }
+    }
+
+    @Override
+    public long finish() throws SQLException, IOException {
+        if (current != null && current.size > 0) {
+            put(current);
+        }
+        current = null;
+        put(END);
+        join();
+        checkFailure();
+        ImportMetrics.pipeline(table, producerWaitNanos, writerIdleNanos, System.nanoTime() - started);
+        return writtenRows;
+    }
+
+    @Override
+    public void close() throws SQLException, IOException {
+        if (writer.isAlive()) {
+            // Saída sem finish (erro no parser): descarta os lotes pendentes sem gravar
+            aborted = true;
+            put(END);
+            join();
+        }
+        delegate.close();
+    }
+
+    // Thread de gravação: consome os lotes em ordem até END e só então chama o finish do loader real
+    private void write() {
+        boolean ended = false;
+        try {
+            while (true) {
+                long waitStarted = System.nanoTime();
+                Batch batch = ready.take();
+                writerIdleNanos += System.nanoTime() - waitStarted;
+                if (batch == END) {
+                    ended = true;
+                    if (failure == null && !aborted) {
+                        writtenRows = delegate.finish();
+                    }
+                    return;
+                }
+                // Depois de uma falha os lotes continuam voltando para a reserva, sem gravar,
+                // para que o parser nunca fique preso esperando
+                if (failure == null && !aborted) {
+                    for (int i = 0; i < batch.size; i++) {
+                        if (batch.values[i] != null) {
+                            delegate.addRow(batch.values[i]);
+                            batch.values[i] = null;
+                        } else {
+                            delegate.addFinancialRow(batch.rows[i]);
+                        }
+                    }
+                }
+                free.put(batch);
+            }
+        } catch (Throwable e) {
+            failure = e;
+            if (!ended) {
+                drain();
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            Batch batch;
+            while ((batch = ready.take()) != END) {
+                free.put(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void put(Batch batch) throws IOException {
+        try {
+            ready.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrompido ao enviar lote para " + table, e);
+        }
+    }
+
+    private Batch take(BlockingQueue<Batch> queue) throws IOException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrompido aguardando lote de " + table, e);
+        }
+    }
+
+    private void join() throws IOException {
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrompido aguardando gravação de " + table, e);
+        }
+    }
+
+    private void checkFailure() throws SQLException, IOException {
+        Throwable error = failure;
+        if (error == null) {
+            return;
+        }
+        if (error instanceof SQLException sql) {
+            throw sql;
+        }
+        if (error instanceof IOException io) {
+            throw io;
+        }
+        if (error instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        throw new IOException("Falha na gravação de " + table + ": " + error.getMessage(), error);
+    }
+}
@@ -0,0 +1,105 @@
+package com.ans;
+
+import com.opencsv.CSVParser;
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.CSVWriter;
+import com.opencsv.ICSVWriter;
+import com.opencsv.exceptions.CsvValidationException;
+
+import java.io.*;
+import java.nio.charset.Charset;
+
+// Lê em sequência os CSVs trimestrais de um ano como se fossem um único arquivo,
+// pulando o cabeçalho de cada um. Opcionalmente grava o consolidado ao mesmo tempo.
+class QuarterlyCsvReader implements RowSource, Closeable {
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final File[] files;
+    private final long[] rowsRead;
+    private final ICSVWriter sideOutput;
+    private CSVReader current;
+    private int nextFile;
+    private boolean headerWritten;
+
+    QuarterlyCsvReader(File[] files, String consolidatedOutput) throws IOException {
+        this.files = files;
+        this.rowsRead = new long[files.length];
+        this.sideOutput = consolidatedOutput == null ? null : new CSVWriter(
+                new BufferedWriter(new FileWriter(consolidatedOutput, Charset.defaultCharset()), BUFFER_SIZE),
+                ';',
+                ICSVWriter.NO_QUOTE_CHARACTER,
+                ICSVWriter.NO_ESCAPE_CHARACTER,
+                "\n");
+    }
+
+    // Leitor no formato das demonstrações contábeis (';', aspas tratadas como texto)
+    static CSVReader openCsv(Reader reader) {
+        CSVParser parser = new CSVParserBuilder()
+                .withSeparator(';')
+                .withIgnoreQuotations(true)
+                .build();
+        return new CSVReaderBuilder(reader)
+                .withCSVParser(parser)
+                .build();
+    }
+
+    @Override
+    public String[] readNext() throws IOException, CsvValidationException {
+        while (true) {
+            if (current == null && !openNext()) {
+                return null;
+            }
+            String[] line = current.readNext();
+            if (line != null) {
+                rowsRead[nextFile - 1]++;
+                if (sideOutput != null) {
+                    sideOutput.writeNext(line, false);
+                }
+                return line;
+            }
+            current.close();
+            current = null;
+        }
+    }
+
+    private boolean openNext() throws IOException, CsvValidationException {
+        if (nextFile >= files.length) {
+            return false;
+        }
+        File file = files[nextFile++];
+        System.out.println("➕ Adicionando: " + file.getName());
+        current = openCsv(new BufferedReader(new FileReader(file), BUFFER_SIZE));
+
+        String[] header = current.readNext(); // Pula cabeçalho
+        if (sideOutput != null && !headerWritten && header != null) {
+            sideOutput.writeNext(header, false);
+            headerWritten = true;
+        }
+        return true;
+    }
+
+    // Linhas de dados (sem cabeçalho) lidas de cada arquivo até agora
+    long rowsRead(File file) {
+        for (int i = 0; i < files.length; i++) {
+            if (files[i].equals(file)) {
+                return rowsRead[i];
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (current != null) {
+                current.close();
+            }
+        } finally {
+            if (sideOutput != null) {
+                sideOutput.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.ans;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+
+// Saldos por trimestre, operadora e conta sintética, acumulados enquanto as linhas passam para o loader
+// e gravados em financial_quarterly_rollup junto com a troca de partições. Só entram contas com até
+// MAX_ACCOUNT_DIGITS dígitos (classe, grupo, subgrupo...): no plano de contas da ANS elas já totalizam
+// as contas analíticas abaixo delas, que ficariam duplicadas na soma.
+final class QuarterlyRollup {
+    static final String TABLE = "financial_quarterly_rollup";
+    private static final int MAX_ACCOUNT_DIGITS = 4;
+    private static final int BATCH_SIZE = 1000;
+
+    private final Map<Key, Total> totals = new HashMap<>();
+    // Último dia convertido em início de trimestre: as linhas de um arquivo costumam ter a mesma data
+    private int lastEpochDay = Integer.MIN_VALUE;
+    private int lastQuarterStart;
+
+    private record Key(int quarterStart, String operatorCode, String account) {
+    }
+
+    private static final class Total {
+        String description;
+        long cents;
+    }
+
+    void add(FinancialRow row) {
+        if (tracked(row.operatorCode, row.account)) {
+            accumulate(row.reportEpochDay, row.operatorCode, row.account, row.description,
+                    toCents(row.balanceUnscaled, row.balanceScale));
+        }
+    }
+
+    // Caminho genérico: valores na ordem de TableSpec.FINANCIAL_REPORTS
+    void add(Object[] values) {
+        String operatorCode = (String) values[1];
+        String account = (String) values[2];
+        if (tracked(operatorCode, account)) {
+            BigDecimal balance = (BigDecimal) values[5];
+            accumulate((int) ((Date) values[0]).toLocalDate().toEpochDay(), operatorCode, account,
+                    (String) values[3], toCents(balance.unscaledValue().longValue(), balance.scale()));
+        }
+    }
+
+    void merge(QuarterlyRollup other) {
+        other.totals.forEach((key, total) -> {
+            Total current = totals.computeIfAbsent(key, k -> new Total());
+            current.description = total.description;
+            current.cents += total.cents;
+        });
+    }
+
+    int size() {
+        return totals.size();
+    }
+
+    // Total em centavos, ou null se a combinação não apareceu
+    Long cents(LocalDate quarterStart, String operatorCode, String account) {
+        Total total = totals.get(new Key((int) quarterStart.toEpochDay(), operatorCode, account));
+        return total == null ? null : total.cents;
+    }
+
+    // Substitui os totais dos trimestres recarregados, na transação de quem chamou.
+    // Combinações de outros trimestres (linhas descartadas na troca de partições) não são gravadas.
+    void replace(Connection conn, int year, Collection<Integer> quarters) throws SQLException {
+        Set<Integer> starts = new HashSet<>();
+        try (PreparedStatement delete = conn.prepareStatement("DELETE FROM " + TABLE + " WHERE quarter_start = ?")) {
+            for (int quarter : quarters) {
+                LocalDate start = FinancialPartitions.quarterStart(year, quarter);
+                starts.add((int) start.toEpochDay());
+                delete.setDate(1, Date.valueOf(start));
+                delete.addBatch();
+            }
+            delete.executeBatch();
+        }
+
+        int pending = 0;
+        try (PreparedStatement insert = conn.prepareStatement("INSERT INTO " + TABLE +
+                " (quarter_start, operator_code, account, description, balance) VALUES (?, ?, ?, ?, ?)")) {
+            for (Map.Entry<Key, Total> entry : totals.entrySet()) {
+                Key key = entry.getKey();
+                if (!starts.contains(key.quarterStart())) {
+                    continue;
+                }
+                insert.setDate(1, DateDecoder.toDate(key.quarterStart()));
+                insert.setString(2, key.operatorCode());
+                insert.setString(3, key.account());
+                insert.setString(4, entry.getValue().description);
+                insert.setBigDecimal(5, BigDecimal.valueOf(entry.getValue().cents, 2));
+                insert.addBatch();
+                if (++pending % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        System.out.println("📈 Rollup trimestral atualizado: " + pending + " totais");
+    }
+
+    // Valor com duas casas, arredondado como o NUMERIC(18, 2) de financial_reports.balance
+    static long toCents(long unscaled, int scale) {
+        if (scale <= 2) {
+            long cents = unscaled;
+            for (int i = scale; i < 2; i++) {
+                cents *= 10;
+            }
+            return cents;
+        }
+        return BigDecimal.valueOf(unscaled, scale).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    private static boolean tracked(String operatorCode, String account) {
+        return operatorCode != null && !operatorCode.isEmpty() && isSynthetic(account);
+    }
+
+    // Mesmo critério do length(account) <= 4 das consultas de 02_analytical_queries.sql
+    static boolean isSynthetic(String account) {
+        return account != null && !account.isEmpty() && account.length() <= MAX_ACCOUNT_DIGITS;
+    }
+
+    private void accumulate(int epochDay, String operatorCode, String account, String description, long cents) {
+        if (epochDay != lastEpochDay) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            lastQuarterStart = (int) FinancialPartitions.quarterStart(date.getYear(), (date.getMonthValue() - 1) / 3 + 1)
+                    .toEpochDay();
+            lastEpochDay = epochDay;
+        }
+        Total total = totals.computeIfAbsent(new Key(lastQuarterStart, operatorCode, account), k -> new Total());
+        total.description = description;
+        total.cents += cents;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ans;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+// Destino das linhas já convertidas (Date, String, Integer, BigDecimal ou null)
+interface RowLoader extends AutoCloseable {
+
+    void addRow(Object[] values) throws SQLException, IOException;
+
+    // Linha de financial_reports vinda do FinancialCsvParser; os loaders COPY a codificam sem alocar
+    default void addFinancialRow(FinancialRow row) throws SQLException, IOException {
+        addRow(row.toValues());
+    }
+
+    // Envia o que estiver pendente e devolve o total de linhas gravadas
+    long finish() throws SQLException, IOException;
+
+    @Override
+    void close() throws SQLException, IOException;
+}
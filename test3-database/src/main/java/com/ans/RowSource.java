@@ -0,0 +1,11 @@
+package com.ans;
+
+import com.opencsv.exceptions.CsvValidationException;
+
+import java.io.IOException;
+
+// Origem de linhas já separadas em campos; null indica o fim dos dados
+interface RowSource {
+
+    String[] readNext() throws IOException, CsvValidationException;
+}
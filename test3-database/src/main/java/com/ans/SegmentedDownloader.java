@@ -0,0 +1,380 @@
+package com.ans;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Baixa vários arquivos ao mesmo tempo (pool limitado) e divide arquivos grandes em
+// segmentos paralelos com HTTP Range. Cada segmento é gravado em um arquivo .part que
+// é retomado de onde parou em caso de falha ou de uma nova execução. O validador do arquivo
+// remoto (ETag forte ou Last-Modified) fica em .part.validator e segue no If-Range: se o
+// arquivo mudou no servidor, os .part antigos são descartados e o download recomeça do zero.
+class SegmentedDownloader implements AutoCloseable {
+    private static final int TIMEOUT = 120000; // 2 minutos
+    private static final int MAX_RETRIES = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int segmentsPerFile;
+    private final long minSegmentSize;
+    private final ExecutorService filePool;
+    private final ExecutorService segmentPool;
+
+    private record RemoteFile(long length, boolean acceptsRanges, String etag, String lastModified,
+                              boolean notModified) {
+        // Validador aceito no If-Range: ETag fraca não serve para pedidos de intervalo
+        String validator() {
+            return etag != null && !etag.startsWith("W/") ? etag : lastModified;
+        }
+    }
+
+    // O servidor respondeu 200 a um If-Range: os bytes já baixados são de outra versão
+    private static final class RemoteChangedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        RemoteChangedException(String fileUrl) {
+            super("Arquivo alterado no servidor durante o download: " + fileUrl);
+        }
+    }
+
+    SegmentedDownloader(int parallelFiles, int segmentsPerFile, long minSegmentSize) {
+        this.segmentsPerFile = Math.max(1, segmentsPerFile);
+        this.minSegmentSize = minSegmentSize;
+        this.filePool = Executors.newFixedThreadPool(Math.max(1, parallelFiles), namedThreads("download"));
+        this.segmentPool = Executors.newFixedThreadPool(
+                Math.max(1, parallelFiles) * this.segmentsPerFile, namedThreads("download-segment"));
+    }
+
+    // Baixa todos os arquivos (URL -> destino) em paralelo; falha se algum falhar.
+    // Devolve os metadados dos arquivos efetivamente baixados: URLs ausentes do
+    // resultado não mudaram em relação ao cache informado.
+    Map<String, DownloadCache.Entry> downloadAll(Map<String, Path> downloads,
+                                                 Map<String, DownloadCache.Entry> cached) throws IOException {
+        Map<String, DownloadCache.Entry> downloaded = new ConcurrentHashMap<>();
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Map.Entry<String, Path> download : downloads.entrySet()) {
+            String url = download.getKey();
+            futures.add(filePool.submit(() -> {
+                DownloadCache.Entry entry = download(url, download.getValue(), cached.get(url));
+                if (entry != null) {
+                    downloaded.put(url, entry);
+                }
+                return null;
+            }));
+        }
+        awaitAll(futures);
+        return downloaded;
+    }
+
+    void download(String fileUrl, Path target) throws IOException {
+        download(fileUrl, target, null);
+    }
+
+    // Com cache, a requisição é condicional (If-None-Match / If-Modified-Since) e devolve
+    // null quando o arquivo remoto não mudou; senão, devolve os novos metadados
+    DownloadCache.Entry download(String fileUrl, Path target, DownloadCache.Entry cached) throws IOException {
+        return download(fileUrl, target, cached, false);
+    }
+
+    private DownloadCache.Entry download(String fileUrl, Path target, DownloadCache.Entry cached, boolean restarted)
+            throws IOException {
+        ImportMetrics.DownloadEvent event = new ImportMetrics.DownloadEvent();
+        RemoteFile remote = probe(fileUrl, cached);
+        if (remote.notModified()) {
+            return null;
+        }
+
+        if (remote.length() <= 0 || !remote.acceptsRanges()) {
+            // Sem tamanho conhecido ou sem suporte a Range: um único GET, sem retomada
+            Path part = partPath(target, -1);
+            RemoteFile[] fetched = new RemoteFile[1];
+            withRetries(fileUrl, () -> fetched[0] = fetchWhole(fileUrl, part, cached));
+            if (fetched[0].notModified()) {
+                return null;
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            ImportMetrics.downloaded(event, target.getFileName().toString(), Files.size(target));
+            return newEntry(fetched[0], target);
+        }
+
+        String validator = remote.validator();
+        discardStaleParts(target, validator);
+
+        long length = remote.length();
+        int segments = (int) Math.max(1, Math.min(segmentsPerFile, length / Math.max(1, minSegmentSize)));
+        List<Path> parts = new ArrayList<>();
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < segments; i++) {
+            long start = length * i / segments;
+            long end = length * (i + 1) / segments - 1;
+            Path part = partPath(target, segments == 1 ? -1 : i);
+            parts.add(part);
+            futures.add(segmentPool.submit(() -> {
+                withRetries(fileUrl, () -> resumeSegment(fileUrl, part, start, end, validator));
+                return null;
+            }));
+        }
+        try {
+            awaitAll(futures);
+        } catch (RemoteChangedException e) {
+            discardParts(target);
+            if (restarted) {
+                throw e;
+            }
+            System.err.println("⚠️ " + target.getFileName() + " mudou no servidor; recomeçando o download");
+            return download(fileUrl, target, cached, true);
+        }
+
+        if (segments == 1) {
+            Files.move(parts.get(0), target, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            merge(parts, target);
+        }
+
+        Files.deleteIfExists(validatorPath(target));
+        if (Files.size(target) != length) {
+            throw new IOException("Tamanho inesperado em " + target + ": " + Files.size(target) + " de " + length);
+        }
+        ImportMetrics.downloaded(event, target.getFileName().toString(), length);
+        return newEntry(remote, target);
+    }
+
+    private static DownloadCache.Entry newEntry(RemoteFile remote, Path target) throws IOException {
+        return new DownloadCache.Entry(remote.etag(), remote.lastModified(), Files.size(target),
+                ImportManifest.sha256(target.toFile()), List.of(target.toString()));
+    }
+
+    // .part de uma versão anterior do arquivo (ou sem validador para conferir) não são retomados
+    private static void discardStaleParts(Path target, String validator) throws IOException {
+        Path saved = validatorPath(target);
+        if (validator == null || !Files.exists(saved)
+                || !validator.equals(Files.readString(saved, StandardCharsets.UTF_8))) {
+            discardParts(target);
+        }
+        if (validator != null) {
+            Files.writeString(saved, validator, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void discardParts(Path target) throws IOException {
+        String prefix = target.getFileName() + ".part";
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(target.toAbsolutePath().getParent(),
+                path -> path.getFileName().toString().startsWith(prefix))) {
+            for (Path part : parts) {
+                Files.deleteIfExists(part);
+            }
+        }
+    }
+
+    private static Path validatorPath(Path target) {
+        return target.resolveSibling(target.getFileName() + ".part.validator");
+    }
+
+    // Continua o segmento a partir do que já existe no .part; o If-Range garante que os bytes
+    // novos são da mesma versão dos já gravados
+    private void resumeSegment(String fileUrl, Path part, long start, long end, String validator)
+            throws IOException {
+        long expected = end - start + 1;
+        long existing = Files.exists(part) ? Files.size(part) : 0;
+        if (existing == expected) {
+            return;
+        }
+        if (existing > expected) {
+            Files.delete(part);
+            existing = 0;
+        }
+        HttpURLConnection conn = open(fileUrl, "GET");
+        conn.setRequestProperty("Range", "bytes=" + (start + existing) + "-" + end);
+        if (validator != null) {
+            conn.setRequestProperty("If-Range", validator);
+        }
+        try {
+            if (validator != null && conn.getResponseCode() == HttpURLConnection.HTTP_OK) {
+                throw new RemoteChangedException(fileUrl);
+            }
+            if (conn.getResponseCode() != HttpURLConnection.HTTP_PARTIAL) {
+                throw new IOException("HTTP " + conn.getResponseCode() + " - " + conn.getResponseMessage());
+            }
+            copy(conn, part, existing > 0);
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    private RemoteFile fetchWhole(String fileUrl, Path part, DownloadCache.Entry cached) throws IOException {
+        HttpURLConnection conn = open(fileUrl, "GET");
+        applyValidators(conn, cached);
+        try {
+            if (conn.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return new RemoteFile(-1, false, null, null, true);
+            }
+            if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("HTTP " + conn.getResponseCode() + " - " + conn.getResponseMessage());
+            }
+            copy(conn, part, false);
+            return remoteFile(conn, null);
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    private static void copy(HttpURLConnection conn, Path part, boolean append) throws IOException {
+        try (InputStream in = conn.getInputStream();
+             OutputStream out = Files.newOutputStream(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int len;
+            while ((len = in.read(buffer)) > 0) {
+                out.write(buffer, 0, len);
+            }
+        }
+    }
+
+    private RemoteFile probe(String fileUrl, DownloadCache.Entry cached) throws IOException {
+        HttpURLConnection conn = open(fileUrl, "HEAD");
+        applyValidators(conn, cached);
+        try {
+            if (conn.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return new RemoteFile(-1, false, null, null, true);
+            }
+            if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                return new RemoteFile(-1, false, null, null, false);
+            }
+            return remoteFile(conn, cached);
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    // Nem todo servidor responde 304 a um HEAD condicional: compara os validadores também
+    private static RemoteFile remoteFile(HttpURLConnection conn, DownloadCache.Entry cached) {
+        long length = conn.getContentLengthLong();
+        String etag = conn.getHeaderField("ETag");
+        String lastModified = conn.getHeaderField("Last-Modified");
+        boolean notModified = cached != null && (etag != null
+                ? etag.equals(cached.etag())
+                : lastModified != null && lastModified.equals(cached.lastModified()) && length == cached.contentLength());
+        return new RemoteFile(length, "bytes".equalsIgnoreCase(conn.getHeaderField("Accept-Ranges")),
+                etag, lastModified, notModified);
+    }
+
+    private static void applyValidators(HttpURLConnection conn, DownloadCache.Entry cached) {
+        if (cached == null) {
+            return;
+        }
+        if (cached.etag() != null) {
+            conn.setRequestProperty("If-None-Match", cached.etag());
+        }
+        if (cached.lastModified() != null) {
+            conn.setRequestProperty("If-Modified-Since", cached.lastModified());
+        }
+    }
+
+    private static HttpURLConnection open(String fileUrl, String method) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(fileUrl).openConnection();
+        conn.setRequestMethod(method);
+        conn.setConnectTimeout(TIMEOUT);
+        conn.setReadTimeout(TIMEOUT);
+        return conn;
+    }
+
+    private static void merge(List<Path> parts, Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Path part : parts) {
+                try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+        }
+        // Os .part só são removidos depois do arquivo final completo
+        for (Path part : parts) {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    private static Path partPath(Path target, int segment) {
+        String name = target.getFileName() + ".part" + (segment < 0 ? "" : segment);
+        return target.resolveSibling(name);
+    }
+
+    private interface Attempt {
+        void run() throws IOException;
+    }
+
+    private static void withRetries(String fileUrl, Attempt attempt) throws IOException {
+        for (int retry = 1; ; retry++) {
+            try {
+                attempt.run();
+                return;
+            } catch (IOException e) {
+                if (e instanceof RemoteChangedException || retry >= MAX_RETRIES) {
+                    throw e;
+                }
+                System.err.println("⚠️ Tentativa " + retry + " falhou para " + fileUrl + ": " + e.getMessage());
+                try {
+                    Thread.sleep(1000L << (retry - 1)); // Espera 1s, 2s, 4s...
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Download interrompido: " + fileUrl, ie);
+                }
+            }
+        }
+    }
+
+    private static void awaitAll(List<Future<Void>> futures) throws IOException {
+        IOException failure = null;
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Download interrompido", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void close() {
+        filePool.shutdownNow();
+        segmentPool.shutdownNow();
+    }
+}
@@ -0,0 +1,45 @@
+package com.ans;
+
+import java.sql.Types;
+
+// Descreve a tabela de destino de uma carga: nome, colunas e tipos JDBC de cada coluna
+record TableSpec(String name, String[] columns, int[] types) {
+
+    static final TableSpec OPERATORS = new TableSpec(
+            "operators",
+            new String[]{"ans_registration", "cnpj", "legal_name", "trade_name",
+                    "modality", "address", "number", "complement", "neighborhood", "city", "state",
+                    "zip_code", "area_code", "phone", "fax", "email", "representative",
+                    "representative_role", "created_at"},
+            new int[]{Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                    Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                    Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                    Types.VARCHAR, Types.DATE}
+    );
+
+    static final TableSpec FINANCIAL_REPORTS = new TableSpec(
+            "financial_reports",
+            new String[]{"report_date", "operator_code", "account", "description",
+                    "is_consolidated", "balance"},
+            new int[]{Types.DATE, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                    Types.INTEGER, Types.NUMERIC}
+    );
+
+    // Mesmas colunas em outra tabela (ex.: tabela temporária de carga)
+    TableSpec withName(String otherName) {
+        return new TableSpec(otherName, columns, types);
+    }
+
+    int columnCount() {
+        return columns.length;
+    }
+
+    String columnList() {
+        return String.join(", ", columns);
+    }
+
+    String insertSql() {
+        return "INSERT INTO " + name + " (" + columnList() + ") VALUES (" +
+                "?, ".repeat(columns.length - 1) + "?)";
+    }
+}
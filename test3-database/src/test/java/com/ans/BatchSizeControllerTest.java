@@ -0,0 +1,88 @@
+package com.ans;
+
+import junit.framework.TestCase;
+
+/**
+ * Ajuste do tamanho de lote pela latência do executeBatch.
+ */
+public class BatchSizeControllerTest extends TestCase
+{
+    private static final long TARGET = 50_000_000L;
+
+    // Simula um banco com custo fixo por chamada (RTT) mais um custo por linha
+    private static int converge( BatchSizeController controller, long rttNanos, long rowNanos )
+    {
+        for ( int i = 0; i < 30; i++ )
+        {
+            int rows = controller.size();
+            controller.record( rows, rttNanos + rows * rowNanos );
+        }
+        return controller.size();
+    }
+
+    public void testLocalDatabaseGrowsToMaximum()
+    {
+        BatchSizeController controller = new BatchSizeController( 1000, 100, 20_000, TARGET );
+        assertEquals( 20_000, converge( controller, 300_000, 2_000 ) );
+    }
+
+    public void testRemoteDatabaseSettlesNearTarget()
+    {
+        BatchSizeController controller = new BatchSizeController( 1000, 100, 100_000, TARGET );
+        int size = converge( controller, 20_000_000, 5_000 );
+        long latency = 20_000_000 + size * 5_000L;
+        assertTrue( "latência " + latency, latency > TARGET * 0.8 && latency < TARGET * 1.2 );
+    }
+
+    public void testSlowBatchesShrinkWithinBounds()
+    {
+        BatchSizeController controller = new BatchSizeController( 1000, 100, 20_000, TARGET );
+        controller.record( 1000, 400_000_000 );
+        assertEquals( 500, controller.size() );
+        assertEquals( 100, converge( controller, 0, 5_000_000 ) );
+    }
+
+    public void testThroughputDropRevertsGrowth()
+    {
+        BatchSizeController controller = new BatchSizeController( 1000, 100, 20_000, TARGET );
+        controller.record( 1000, 10_000_000 ); // 100k linhas/s, cresce para 2000
+        assertEquals( 2000, controller.size() );
+        controller.record( 2000, 40_000_000 ); // 50k linhas/s: volta para 1000 e não passa disso
+        assertEquals( 1000, controller.size() );
+        controller.record( 1000, 10_000_000 );
+        assertEquals( 1000, controller.size() );
+    }
+
+    public void testCeilingRecoversAfterNoisySample()
+    {
+        BatchSizeController controller = new BatchSizeController( 1000, 100, 20_000, TARGET );
+        controller.record( 1000, 2_300_000 );
+        controller.record( 2000, 100_000_000 ); // Pausa de GC no meio do lote: volta para 1000
+        assertEquals( 1000, controller.size() );
+
+        // Com a latência normal de volta o teto é testado de novo e o lote volta a crescer
+        for ( int i = 0; i < BatchSizeController.STABLE_SAMPLES; i++ )
+        {
+            controller.record( controller.size(), 300_000 + controller.size() * 2_000L );
+        }
+        assertEquals( 2000, controller.size() );
+        for ( int i = 0; i < BatchSizeController.STABLE_SAMPLES * 5; i++ )
+        {
+            controller.record( controller.size(), 300_000 + controller.size() * 2_000L );
+        }
+        assertEquals( 20_000, controller.size() );
+    }
+
+    public void testPartialBatchDoesNotAdjust()
+    {
+        BatchSizeController controller = new BatchSizeController( 1000, 100, 20_000, TARGET );
+        controller.record( 10, 1_000 );
+        assertEquals( 1000, controller.size() );
+    }
+
+    public void testFixedSizeNeverChanges()
+    {
+        BatchSizeController controller = BatchSizeController.fixed( 1000 );
+        assertEquals( 1000, converge( controller, 0, 1 ) );
+    }
+}
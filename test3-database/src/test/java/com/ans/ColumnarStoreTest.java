@@ -0,0 +1,76 @@
+package com.ans;
+
+import junit.framework.TestCase;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Consultas de top N sobre o armazenamento colunar em memória.
+ */
+public class ColumnarStoreTest extends TestCase
+{
+    private static final String EXPENSES = "EVENTOS/ SINISTROS CONHECIDOS OU AVISADOS DE ASSISTENCIA A SAUDE MEDICO HOSPITALAR";
+
+    // Datas fora de ordem de propósito: o store ordena as linhas na carga
+    private static final String CSV = "DATA;REG_ANS;CD_CONTA_CONTABIL;DESCRICAO;VL_SALDO_INICIAL;VL_SALDO_FINAL\n"
+        + "2024-04-01;111111;4111;" + EXPENSES + ";0;500,00\n"
+        + "2024-01-01;111111;4111;" + EXPENSES + ";0;100,00\n"
+        + "2024-01-01;222222;4111;" + EXPENSES + ";0;300,00\n"
+        + "2024-01-01;333333;4111;" + EXPENSES + ";0;200,00\n"
+        + "2024-01-01;333333;4111;" + EXPENSES + ";0;150,50\n"
+        + "2024-01-01;222222;3111;CONTRAPRESTACOES EFETIVAS;0;9.999,00\n"
+        + "2023-10-01;222222;4111;" + EXPENSES + ";0;7.000,00\n";
+
+    private static final Predicate<String> ANY = ColumnarStore.like( "%" );
+
+    private static ColumnarStore store() throws Exception
+    {
+        return ColumnarStore.build( new FinancialCsvParser( new StringReader( CSV ) ) );
+    }
+
+    public void testTopOperatorsInQuarter() throws Exception
+    {
+        List<ColumnarStore.OperatorTotal> top = store().topOperators( LocalDate.of( 2024, 1, 1 ),
+            LocalDate.of( 2024, 4, 1 ), ANY, ColumnarStore.like( ANSAnalytics.EXPENSES_PATTERN ), 2 );
+
+        assertEquals( 2, top.size() );
+        assertEquals( "333333", top.get( 0 ).operatorCode() );
+        assertEquals( 35050, top.get( 0 ).cents() );
+        assertEquals( "222222", top.get( 1 ).operatorCode() );
+        assertEquals( 30000, top.get( 1 ).cents() );
+    }
+
+    public void testPeriodCoversSeveralQuarters() throws Exception
+    {
+        List<ColumnarStore.OperatorTotal> top = store().topOperators( LocalDate.of( 2023, 10, 1 ),
+            LocalDate.of( 2024, 7, 1 ), ColumnarStore.like( "41%" ), ANY, 10 );
+
+        assertEquals( 3, top.size() );
+        assertEquals( "222222", top.get( 0 ).operatorCode() );
+        assertEquals( 730000, top.get( 0 ).cents() );
+        assertEquals( 60000, top.get( 1 ).cents() );
+    }
+
+    public void testEmptyPeriod() throws Exception
+    {
+        assertTrue( store().topOperators( LocalDate.of( 2025, 1, 1 ), LocalDate.of( 2025, 4, 1 ), ANY, ANY, 10 )
+            .isEmpty() );
+    }
+
+    public void testLikePattern()
+    {
+        Predicate<String> like = ColumnarStore.like( "eventos/%medico_hospitalar%" );
+        assertTrue( like.test( EXPENSES ) );
+        assertFalse( like.test( "PROVISAO PARA EVENTOS" ) );
+        assertTrue( ColumnarStore.like( "4.1%" ).test( "4.11" ) );
+        assertFalse( ColumnarStore.like( "4.1%" ).test( "4911" ) );
+    }
+
+    public void testQuarterStart()
+    {
+        assertEquals( LocalDate.of( 2024, 4, 1 ), ANSAnalytics.quarterStart( LocalDate.of( 2024, 6, 30 ) ) );
+    }
+}
@@ -0,0 +1,51 @@
+package com.ans;
+
+import junit.framework.TestCase;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Codificação binária de NUMERIC usada pelo COPY.
+ */
+public class CopyLoaderTest extends TestCase
+{
+    private static byte[] encode( String value )
+    {
+        CopyLoader.Buffer buffer = new CopyLoader.Buffer( 64 );
+        CopyLoader.writeNumeric( buffer, new BigDecimal( value ) );
+        return buffer.toByteArray();
+    }
+
+    public void testNumericWithFraction()
+    {
+        // 12345.67 -> dígitos [1, 2345, 6700], peso 1, escala 2
+        byte[] expected = { 0, 0, 0, 14, 0, 3, 0, 1, 0, 0, 0, 2, 0, 1, 0x09, 0x29, 0x1A, 0x2C };
+        assertTrue( Arrays.equals( expected, encode( "12345.67" ) ) );
+    }
+
+    public void testNegativeNumeric()
+    {
+        // -0.05 -> dígitos [500], peso -1, sinal negativo, escala 2
+        byte[] expected = { 0, 0, 0, 10, 0, 1, (byte) 0xFF, (byte) 0xFF, 0x40, 0, 0, 2, 0x01, (byte) 0xF4 };
+        assertTrue( Arrays.equals( expected, encode( "-0.05" ) ) );
+    }
+
+    public void testZero()
+    {
+        byte[] expected = { 0, 0, 0, 8, 0, 0, 0, 0, 0, 0, 0, 2 };
+        assertTrue( Arrays.equals( expected, encode( "0.00" ) ) );
+    }
+
+    public void testPrimitiveEncodingMatchesBigDecimal()
+    {
+        String[] values = { "12345.67", "-0.05", "0.00", "1", "-987654321.0001", "10000", "0.123456789" };
+        for ( String value : values )
+        {
+            BigDecimal decimal = new BigDecimal( value );
+            CopyLoader.Buffer buffer = new CopyLoader.Buffer( 64 );
+            CopyLoader.writeNumeric( buffer, decimal.unscaledValue().longValue(), decimal.scale() );
+            assertTrue( value, Arrays.equals( encode( value ), buffer.toByteArray() ) );
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ans;
+
+import junit.framework.TestCase;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Conversão compartilhada de datas.
+ */
+public class DateDecoderTest extends TestCase
+{
+    public void testParsesQuotedAndUnpaddedDates()
+    {
+        assertEquals( Date.valueOf( "2024-03-05" ), DateDecoder.toDate( "\"2024-3-5\"" ) );
+        assertEquals( Date.valueOf( "2000-02-29" ), DateDecoder.toDate( " 2000-02-29 " ) );
+    }
+
+    public void testRejectsInvalidDates()
+    {
+        String[] invalid = { "", "2023-02-29", "2024-13-01", "01/02/2024", "2024-01" };
+        for ( String text : invalid )
+        {
+            try
+            {
+                DateDecoder.toDate( text );
+                fail( text );
+            }
+            catch ( IllegalArgumentException expected )
+            {
+            }
+        }
+    }
+
+    public void testReusesInstancePerDay()
+    {
+        assertSame( DateDecoder.toDate( "2024-01-01" ), DateDecoder.toDate( "2024-01-01" ) );
+    }
+
+    public void testEpochDayMatchesLocalDate()
+    {
+        for ( LocalDate date = LocalDate.of( 1899, 12, 1 ); date.getYear() < 2101; date = date.plusDays( 37 ) )
+        {
+            assertEquals( date.toString(), date.toEpochDay(),
+                    DateDecoder.epochDay( date.getYear(), date.getMonthValue(), date.getDayOfMonth() ) );
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.ans;
+
+import junit.framework.TestCase;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Parser dedicado das demonstrações contábeis.
+ */
+public class FinancialCsvParserTest extends TestCase
+{
+    private static FinancialCsvParser parser( String content ) throws Exception
+    {
+        return new FinancialCsvParser( new StringReader( "DATA;REG_ANS;CD_CONTA;DESCRICAO;CONSOLIDADO;SALDO\n" + content ) );
+    }
+
+    public void testParsesQuotedRow() throws Exception
+    {
+        FinancialRow row = new FinancialRow();
+        try ( FinancialCsvParser parser = parser( "\"2024-01-01\";\"123456\";\"31\";\"RECEITAS \";\"1\";\"1.234,56\"\r\n" ) )
+        {
+            assertTrue( parser.next( row ) );
+            assertNull( row.error );
+            assertEquals( LocalDate.of( 2024, 1, 1 ).toEpochDay(), row.reportEpochDay );
+            assertEquals( "123456", row.operatorCode );
+            assertEquals( "31", row.account );
+            assertEquals( "RECEITAS", row.description );
+            assertEquals( 1, row.consolidated );
+            assertEquals( new BigDecimal( "1234.56" ), BigDecimal.valueOf( row.balanceUnscaled, row.balanceScale ) );
+            assertFalse( parser.next( row ) );
+        }
+    }
+
+    public void testSkipsBlankLinesAndFlagsInvalidRows() throws Exception
+    {
+        FinancialRow row = new FinancialRow();
+        try ( FinancialCsvParser parser = parser( "\n2024-02-30;1;2;X;1;0\n2024-3-5;1;2;X;0;-10\n" ) )
+        {
+            assertTrue( parser.next( row ) );
+            assertEquals( "Data inválida", row.error );
+            assertTrue( parser.next( row ) );
+            assertNull( row.error );
+            assertEquals( LocalDate.of( 2024, 3, 5 ).toEpochDay(), row.reportEpochDay );
+            assertEquals( -10, row.balanceUnscaled );
+            assertEquals( 0, row.balanceScale );
+            assertFalse( parser.next( row ) );
+        }
+    }
+}
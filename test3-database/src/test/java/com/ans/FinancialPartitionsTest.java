@@ -0,0 +1,57 @@
+package com.ans;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Nomes e limites das partições trimestrais de financial_reports.
+ */
+public class FinancialPartitionsTest extends TestCase
+{
+    public void testPartitionNames()
+    {
+        assertEquals( "financial_reports_2024_q3", FinancialPartitions.partitionName( 2024, 3 ) );
+        assertEquals( "financial_reports_load_2024_0", FinancialPartitions.stagingName( 2024, 0 ) );
+    }
+
+    public void testBoundsCoverWholeQuarter()
+    {
+        assertEquals( "FROM ('2024-01-01') TO ('2024-04-01')", FinancialPartitions.bounds( 2024, 1 ) );
+        assertEquals( "FROM ('2023-10-01') TO ('2024-01-01')", FinancialPartitions.bounds( 2023, 4 ) );
+    }
+
+    public void testStagingIsUnloggedWithoutIndexes()
+    {
+        assertEquals( "CREATE UNLOGGED TABLE financial_reports_load_2024_0 (LIKE financial_reports INCLUDING DEFAULTS)",
+            FinancialPartitions.createStagingSql( "financial_reports_load_2024_0", true ) );
+        assertEquals( "CREATE TABLE t (LIKE financial_reports INCLUDING DEFAULTS)",
+            FinancialPartitions.createStagingSql( "t", false ) );
+        assertEquals( "CREATE INDEX financial_reports_2024_q1_new_operator_idx ON financial_reports_2024_q1_new "
+            + "(operator_code, report_date)", FinancialPartitions.indexSql( "financial_reports_2024_q1_new" ) );
+    }
+
+    public void testRejectsInvalidQuarter()
+    {
+        try
+        {
+            FinancialPartitions.quarterStart( 2024, 0 );
+            fail();
+        }
+        catch ( IllegalArgumentException expected )
+        {
+        }
+    }
+
+    public void testQuartersToReplace()
+    {
+        File[] changed = { new File( "demo_2024_3T.csv" ), new File( "demo_2024_1T.csv" ) };
+        assertEquals( new TreeSet<>( Arrays.asList( 1, 3 ) ), ANSDataImporter.quartersToReplace( changed, false ) );
+
+        Set<Integer> year = ANSDataImporter.quartersToReplace( changed, true );
+        assertEquals( new TreeSet<>( Arrays.asList( 1, 2, 3, 4 ) ), year );
+    }
+}
@@ -0,0 +1,62 @@
+package com.ans;
+
+import junit.framework.TestCase;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Métricas por etapa, eventos JFR e resumo em JSON.
+ */
+public class ImportMetricsTest extends TestCase
+{
+    protected void setUp()
+    {
+        ImportMetrics.reset();
+    }
+
+    public void testBatchBuckets()
+    {
+        assertEquals( 0, ImportMetrics.bucket( 0 ) );
+        assertEquals( 0, ImportMetrics.bucket( 250 ) );
+        assertEquals( 1, ImportMetrics.bucket( 251 ) );
+        assertEquals( ImportMetrics.BATCH_BUCKETS_MICROS.length, ImportMetrics.bucket( 5_000_000 ) );
+    }
+
+    public void testJsonSummary()
+    {
+        ImportMetrics.loaded( new ImportMetrics.LoadEvent(), "financial_reports_load_2024_0", "demo \"1T\".csv", 10, 2 );
+        ImportMetrics.batch( new ImportMetrics.BatchEvent(), "financial_reports_load_2024_0", 10 );
+        ImportMetrics.period( new ImportMetrics.PeriodEvent(), 2024, Set.of( 3, 1 ), 10 );
+
+        String json = ImportMetrics.toJson();
+        assertTrue( json, json.contains( "\"source\": \"demo \\\"1T\\\".csv\"" ) );
+        assertTrue( json, json.contains( "\"rows\": 10, \"rejected\": 2" ) );
+        assertTrue( json, json.contains( "\"quarters\": \"[1, 3]\"" ) );
+        assertTrue( json, json.contains( "\"batches\": {\"rows\": 10" ) );
+        assertTrue( json, json.contains( "{\"leMicros\": null, \"count\": " ) );
+    }
+
+    public void testEmitsFlightRecorderEvents() throws Exception
+    {
+        File dump = File.createTempFile( "metrics", ".jfr" );
+        dump.deleteOnExit();
+        try ( Recording recording = new Recording() )
+        {
+            recording.enable( "com.ans.Batch" );
+            recording.start();
+            ImportMetrics.batch( new ImportMetrics.BatchEvent(), "operators_delta", 1000 );
+            recording.stop();
+            recording.dump( dump.toPath() );
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents( dump.toPath() );
+        assertEquals( 1, events.size() );
+        assertEquals( "operators_delta", events.get( 0 ).getString( "table" ) );
+        assertEquals( 1000, events.get( 0 ).getInt( "rows" ) );
+    }
+}
@@ -0,0 +1,113 @@
+package com.ans;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Leitura paralela de um CSV mapeado em memória.
+ */
+public class MappedCsvReaderTest extends TestCase
+{
+    private static final String HEADER = "DATA;REG_ANS;CD_CONTA_CONTABIL;DESCRICAO;VL_SALDO_INICIAL;VL_SALDO_FINAL\n";
+
+    private static String csv( int rows )
+    {
+        StringBuilder csv = new StringBuilder( HEADER );
+        for ( int i = 0; i < rows; i++ )
+        {
+            csv.append( "\"2024-0" ).append( 1 + i % 9 ).append( "-01\";\"" ).append( 100000 + i ).append( "\";\"41" )
+                .append( i % 7 ).append( "\";\"CONTA " ).append( i % 13 ).append( "\";0;" ).append( i ).append( ",5\n" );
+            if ( i % 1000 == 500 )
+            {
+                csv.append( "2024-02-30;1;2;INVALIDA;0;0\n" );
+            }
+        }
+        return csv.toString();
+    }
+
+    private static File write( String content ) throws Exception
+    {
+        File file = File.createTempFile( "mapped", ".csv" );
+        file.deleteOnExit();
+        Files.writeString( file.toPath(), content, Charset.defaultCharset() );
+        return file;
+    }
+
+    private static List<String> read( FinancialRowSource source ) throws Exception
+    {
+        List<String> rows = new ArrayList<>();
+        FinancialRow row = new FinancialRow();
+        try ( source )
+        {
+            while ( source.next( row ) )
+            {
+                rows.add( row.error != null ? row.error + " " + source.currentLine()
+                    : row.reportEpochDay + "|" + row.operatorCode + "|" + row.account + "|" + row.description + "|"
+                        + row.balanceUnscaled + "/" + row.balanceScale );
+            }
+        }
+        return rows;
+    }
+
+    public void testOrderedMatchesSequentialParser() throws Exception
+    {
+        String content = csv( 30000 );
+        List<String> expected = read( new FinancialCsvParser( new StringReader( content ) ) );
+
+        MappedCsvReader reader = new MappedCsvReader( write( content ), 4, true, Charset.defaultCharset() );
+        assertEquals( expected, read( reader ) );
+        assertEquals( expected.size(), reader.rowsRead() );
+        assertTrue( expected.contains( "Data inválida 2024-02-30;1;2;INVALIDA;0;0" ) );
+    }
+
+    public void testUnorderedReturnsSameRows() throws Exception
+    {
+        String content = csv( 30000 );
+        List<String> expected = read( new FinancialCsvParser( new StringReader( content ) ) );
+        List<String> actual = read( new MappedCsvReader( write( content ), 3, false, Charset.defaultCharset() ) );
+
+        Collections.sort( expected );
+        Collections.sort( actual );
+        assertEquals( expected, actual );
+    }
+
+    public void testChunksEndOutsideQuotes() throws Exception
+    {
+        StringBuilder content = new StringBuilder( HEADER );
+        for ( int i = 0; i < 200; i++ )
+        {
+            content.append( "2024-01-01;1;41;\"LINHA\nQUEBRADA " ).append( i ).append( "\";0;1\n" );
+        }
+        File file = write( content.toString() );
+
+        try ( FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ ) )
+        {
+            List<long[]> chunks = MappedCsvReader.chunks( channel, 7 );
+            assertEquals( 0, chunks.get( 0 )[0] );
+            assertEquals( channel.size(), chunks.get( chunks.size() - 1 )[1] );
+            for ( int i = 1; i < chunks.size(); i++ )
+            {
+                long boundary = chunks.get( i )[0];
+                assertEquals( chunks.get( i - 1 )[1], boundary );
+                // Cada trecho começa numa linha completa, nunca no meio do campo entre aspas
+                String prefix = content.substring( 0, (int) boundary );
+                assertEquals( 0, prefix.chars().filter( c -> c == '"' ).count() % 2 );
+                assertTrue( prefix.endsWith( "\n" ) );
+            }
+        }
+    }
+
+    public void testEmptyFile() throws Exception
+    {
+        assertTrue( read( new MappedCsvReader( write( "" ), 4, true, Charset.defaultCharset() ) ).isEmpty() );
+    }
+}
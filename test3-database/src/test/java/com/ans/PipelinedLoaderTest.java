@@ -0,0 +1,127 @@
+package com.ans;
+
+import junit.framework.TestCase;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gravação em thread separada com fila limitada de lotes.
+ */
+public class PipelinedLoaderTest extends TestCase
+{
+    // Loader de teste: guarda as linhas e a thread que gravou, e pode falhar numa linha dada
+    private static final class RecordingLoader implements RowLoader
+    {
+        final List<String> rows = new ArrayList<>();
+        final int failAt;
+        String thread;
+        boolean finished;
+        boolean closed;
+
+        RecordingLoader( int failAt )
+        {
+            this.failAt = failAt;
+        }
+
+        @Override
+        public void addRow( Object[] values ) throws SQLException
+        {
+            if ( rows.size() == failAt )
+            {
+                throw new SQLException( "falha simulada" );
+            }
+            thread = Thread.currentThread().getName();
+            rows.add( String.valueOf( values[1] ) );
+        }
+
+        @Override
+        public void addFinancialRow( FinancialRow row ) throws SQLException
+        {
+            addRow( new Object[] { null, row.operatorCode } );
+        }
+
+        @Override
+        public long finish()
+        {
+            finished = true;
+            return rows.size();
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+
+    public void testRowsArriveInOrderOnWriterThread() throws Exception
+    {
+        RecordingLoader recording = new RecordingLoader( -1 );
+        FinancialRow row = new FinancialRow();
+        try ( PipelinedLoader loader = new PipelinedLoader( recording, "teste", 7, 2 ) )
+        {
+            for ( int i = 0; i < 100; i++ )
+            {
+                if ( i % 2 == 0 )
+                {
+                    row.operatorCode = "op" + i; // A mesma FinancialRow é reaproveitada pelo chamador
+                    loader.addFinancialRow( row );
+                }
+                else
+                {
+                    loader.addRow( new Object[] { null, "op" + i } );
+                }
+            }
+            assertEquals( 100, loader.finish() );
+        }
+
+        assertEquals( 100, recording.rows.size() );
+        for ( int i = 0; i < 100; i++ )
+        {
+            assertEquals( "op" + i, recording.rows.get( i ) );
+        }
+        assertEquals( "db-writer-teste", recording.thread );
+        assertTrue( recording.finished );
+        assertTrue( recording.closed );
+    }
+
+    public void testWriterFailureReachesProducer() throws Exception
+    {
+        RecordingLoader recording = new RecordingLoader( 10 );
+        PipelinedLoader loader = new PipelinedLoader( recording, "teste", 4, 1 );
+        try
+        {
+            // Mais linhas que a fila comporta: o parser não pode ficar preso após a falha
+            for ( int i = 0; i < 10_000; i++ )
+            {
+                loader.addRow( new Object[] { null, "op" + i } );
+            }
+            loader.finish();
+            fail( "a falha da gravação deveria chegar ao chamador" );
+        }
+        catch ( SQLException e )
+        {
+            assertEquals( "falha simulada", e.getMessage() );
+        }
+        finally
+        {
+            loader.close();
+        }
+        assertFalse( recording.finished );
+        assertTrue( recording.closed );
+    }
+
+    public void testCloseWithoutFinishDiscardsPendingRows() throws Exception
+    {
+        RecordingLoader recording = new RecordingLoader( -1 );
+        try ( PipelinedLoader loader = new PipelinedLoader( recording, "teste", 1000, 2 ) )
+        {
+            loader.addRow( new Object[] { null, "op" } );
+        }
+        assertFalse( recording.finished );
+        assertTrue( recording.rows.isEmpty() );
+        assertTrue( recording.closed );
+    }
+}
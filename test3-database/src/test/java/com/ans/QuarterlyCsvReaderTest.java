@@ -0,0 +1,44 @@
+package com.ans;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitura encadeada dos CSVs trimestrais.
+ */
+public class QuarterlyCsvReaderTest extends TestCase
+{
+    private static File csv( String content ) throws Exception
+    {
+        File file = File.createTempFile( "quarter", ".csv" );
+        file.deleteOnExit();
+        Files.writeString( file.toPath(), content );
+        return file;
+    }
+
+    public void testConcatenatesFilesSkippingHeaders() throws Exception
+    {
+        File q1 = csv( "\"DATA\";\"REG_ANS\"\n\"2024-01-01\";\"1\"\n" );
+        File q2 = csv( "\"DATA\";\"REG_ANS\"\n\"2024-04-01\";\"2\"\n\"2024-04-01\";\"3\"\n" );
+        File consolidated = File.createTempFile( "consolidated", ".csv" );
+        consolidated.deleteOnExit();
+
+        List<String> codes = new ArrayList<>();
+        try ( QuarterlyCsvReader reader = new QuarterlyCsvReader( new File[]{ q1, q2 }, consolidated.getPath() ) )
+        {
+            String[] line;
+            while ( ( line = reader.readNext() ) != null )
+            {
+                codes.add( line[1] );
+            }
+        }
+
+        assertEquals( List.of( "1", "2", "3" ), codes );
+        assertEquals( "DATA;REG_ANS\n2024-01-01;1\n2024-04-01;2\n2024-04-01;3\n",
+                Files.readString( consolidated.toPath() ) );
+    }
+}
@@ -0,0 +1,133 @@
+package com.ans;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Acúmulo dos saldos trimestrais durante a carga.
+ */
+public class QuarterlyRollupTest extends TestCase
+{
+    private static final String CSV = "DATA;REG_ANS;CD_CONTA_CONTABIL;DESCRICAO;VL_SALDO_INICIAL;VL_SALDO_FINAL\n"
+        + "2024-01-01;123456;4111;EVENTOS;0;1.000,50\n"
+        + "2024-03-31;123456;4111;EVENTOS;0;20,25\n"
+        + "2024-04-01;123456;4111;EVENTOS;0;7,00\n"
+        + "2024-01-01;123456;41111;CONSULTAS;0;999,99\n"
+        + "2024-01-01;654321;4111;EVENTOS;0;-3,5\n";
+
+    public void testSumsSyntheticAccountsPerQuarter() throws Exception
+    {
+        QuarterlyRollup rollup = new QuarterlyRollup();
+        FinancialRow row = new FinancialRow();
+        try ( FinancialCsvParser parser = new FinancialCsvParser( new StringReader( CSV ) ) )
+        {
+            while ( parser.next( row ) )
+            {
+                rollup.add( row );
+            }
+        }
+
+        assertEquals( 3, rollup.size() );
+        assertEquals( Long.valueOf( 102075 ), rollup.cents( LocalDate.of( 2024, 1, 1 ), "123456", "4111" ) );
+        assertEquals( Long.valueOf( 700 ), rollup.cents( LocalDate.of( 2024, 4, 1 ), "123456", "4111" ) );
+        assertEquals( Long.valueOf( -350 ), rollup.cents( LocalDate.of( 2024, 1, 1 ), "654321", "4111" ) );
+        assertNull( rollup.cents( LocalDate.of( 2024, 1, 1 ), "123456", "41111" ) );
+    }
+
+    public void testGenericPathMatchesPrimitivePath() throws Exception
+    {
+        QuarterlyRollup primitive = new QuarterlyRollup();
+        QuarterlyRollup generic = new QuarterlyRollup();
+        FinancialRow row = new FinancialRow();
+        try ( FinancialCsvParser parser = new FinancialCsvParser( new StringReader( CSV ) ) )
+        {
+            while ( parser.next( row ) )
+            {
+                primitive.add( row );
+                generic.add( ANSDataImporter.parseFinancialRow( parser.currentLine().split( ";" ) ) );
+            }
+        }
+
+        assertEquals( primitive.size(), generic.size() );
+        assertEquals( primitive.cents( LocalDate.of( 2024, 1, 1 ), "123456", "4111" ),
+            generic.cents( LocalDate.of( 2024, 1, 1 ), "123456", "4111" ) );
+    }
+
+    public void testMergeAddsWorkerTotals() throws Exception
+    {
+        QuarterlyRollup first = new QuarterlyRollup();
+        QuarterlyRollup second = new QuarterlyRollup();
+        FinancialRow row = new FinancialRow();
+        try ( FinancialCsvParser parser = new FinancialCsvParser( new StringReader( CSV ) ) )
+        {
+            parser.next( row );
+            first.add( row );
+            parser.next( row );
+            second.add( row );
+        }
+
+        first.merge( second );
+        assertEquals( Long.valueOf( 102075 ), first.cents( LocalDate.of( 2024, 1, 1 ), "123456", "4111" ) );
+    }
+
+    public void testRollupMatchesDetailQueryWithSubAccounts() throws Exception
+    {
+        // Conta-mãe e analítica com a mesma descrição: a filha já está somada na mãe
+        String expenses = "EVENTOS/ SINISTROS CONHECIDOS OU AVISADOS DE ASSISTENCIA A SAUDE MEDICO HOSPITALAR";
+        String csv = "DATA;REG_ANS;CD_CONTA_CONTABIL;DESCRICAO;VL_SALDO_INICIAL;VL_SALDO_FINAL\n"
+            + "2024-01-01;123456;4111;" + expenses + ";0;1.000,00\n"
+            + "2024-01-01;123456;41111;" + expenses + " - CONSULTAS;0;600,00\n"
+            + "2024-01-01;123456;41112;" + expenses + " - EXAMES;0;400,00\n";
+
+        QuarterlyRollup rollup = new QuarterlyRollup();
+        ColumnarStore store;
+        try ( FinancialCsvParser parser = new FinancialCsvParser( new StringReader( csv ) ) )
+        {
+            store = ColumnarStore.build( new FinancialRowSource()
+            {
+                @Override
+                public boolean next( FinancialRow row ) throws IOException
+                {
+                    boolean found = parser.next( row );
+                    if ( found )
+                    {
+                        rollup.add( row );
+                    }
+                    return found;
+                }
+
+                @Override
+                public String currentLine()
+                {
+                    return parser.currentLine();
+                }
+
+                @Override
+                public void close()
+                {
+                }
+            } );
+        }
+
+        // Equivalente em memória da Consulta 1 sobre financial_reports (descrição + conta sintética)
+        List<ColumnarStore.OperatorTotal> detail = store.topOperators( LocalDate.of( 2024, 1, 1 ),
+            LocalDate.of( 2024, 4, 1 ), QuarterlyRollup::isSynthetic,
+            ColumnarStore.like( ANSAnalytics.EXPENSES_PATTERN ), 10 );
+        assertEquals( 1, detail.size() );
+        assertEquals( 100000, detail.get( 0 ).cents() );
+        assertEquals( Long.valueOf( detail.get( 0 ).cents() ),
+            rollup.cents( LocalDate.of( 2024, 1, 1 ), "123456", "4111" ) );
+    }
+
+    public void testCentsRoundLikeNumericColumn()
+    {
+        assertEquals( 1234, QuarterlyRollup.toCents( 1234, 2 ) );
+        assertEquals( 1200, QuarterlyRollup.toCents( 12, 0 ) );
+        assertEquals( 13, QuarterlyRollup.toCents( 125, 3 ) );
+        assertEquals( -13, QuarterlyRollup.toCents( -125, 3 ) );
+    }
+}
@@ -0,0 +1,185 @@
+package com.ans;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Download segmentado e retomada contra um servidor HTTP local.
+ */
+public class SegmentedDownloaderTest extends TestCase
+{
+    private static final Pattern RANGE = Pattern.compile( "bytes=(\\d+)-(\\d+)" );
+
+    private volatile byte[] content = new byte[100_000];
+    private volatile String etag = "\"v1\"";
+    // Conteúdo publicado logo depois do próximo HEAD, simulando a ANS trocando o arquivo no meio
+    private volatile byte[] republished;
+    private final AtomicInteger rangeRequests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private HttpServer server;
+    private Path dir;
+
+    protected void setUp() throws Exception
+    {
+        new Random( 42 ).nextBytes( content );
+        dir = Files.createTempDirectory( "downloads" );
+        server = HttpServer.create( new InetSocketAddress( "127.0.0.1", 0 ), 0 );
+        server.createContext( "/", this::serve );
+        server.start();
+    }
+
+    protected void tearDown()
+    {
+        server.stop( 0 );
+    }
+
+    private void serve( HttpExchange exchange ) throws IOException
+    {
+        exchange.getResponseHeaders().set( "Accept-Ranges", "bytes" );
+        exchange.getResponseHeaders().set( "ETag", etag );
+        if ( etag.equals( exchange.getRequestHeaders().getFirst( "If-None-Match" ) ) )
+        {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders( 304, -1 );
+            exchange.close();
+            return;
+        }
+        if ( "HEAD".equals( exchange.getRequestMethod() ) )
+        {
+            exchange.getResponseHeaders().set( "Content-Length", String.valueOf( content.length ) );
+            exchange.sendResponseHeaders( 200, -1 );
+            exchange.close();
+            if ( republished != null )
+            {
+                content = republished;
+                etag = "\"v2\"";
+                republished = null;
+            }
+            return;
+        }
+
+        int from = 0;
+        int to = content.length - 1;
+        int status = 200;
+        String range = exchange.getRequestHeaders().getFirst( "Range" );
+        String ifRange = exchange.getRequestHeaders().getFirst( "If-Range" );
+        if ( range != null && ( ifRange == null || ifRange.equals( etag ) ) )
+        {
+            Matcher m = RANGE.matcher( range );
+            assertTrue( m.matches() );
+            from = Integer.parseInt( m.group( 1 ) );
+            to = Integer.parseInt( m.group( 2 ) );
+            status = 206;
+            rangeRequests.incrementAndGet();
+        }
+        exchange.sendResponseHeaders( status, to - from + 1 );
+        try ( OutputStream out = exchange.getResponseBody() )
+        {
+            out.write( content, from, to - from + 1 );
+        }
+    }
+
+    private String url( String name )
+    {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/" + name;
+    }
+
+    public void testDownloadsInSegments() throws Exception
+    {
+        Path a = dir.resolve( "1T2024.zip" );
+        Path b = dir.resolve( "2T2024.zip" );
+        try ( SegmentedDownloader downloader = new SegmentedDownloader( 2, 4, 10_000 ) )
+        {
+            downloader.downloadAll( Map.of( url( "1T2024.zip" ), a, url( "2T2024.zip" ), b ), Map.of() );
+        }
+
+        assertTrue( Arrays.equals( content, Files.readAllBytes( a ) ) );
+        assertTrue( Arrays.equals( content, Files.readAllBytes( b ) ) );
+        assertEquals( 8, rangeRequests.get() );
+        assertFalse( Files.exists( dir.resolve( "1T2024.zip.part0" ) ) );
+    }
+
+    public void testResumesPartialSegment() throws Exception
+    {
+        Path target = dir.resolve( "3T2024.zip" );
+        // Segmento 0 (bytes 0-49999) já completo, segmento 1 parado no meio
+        Files.write( dir.resolve( "3T2024.zip.part0" ), Arrays.copyOfRange( content, 0, 50_000 ) );
+        Files.write( dir.resolve( "3T2024.zip.part1" ), Arrays.copyOfRange( content, 50_000, 70_000 ) );
+        Files.writeString( dir.resolve( "3T2024.zip.part.validator" ), "\"v1\"" );
+
+        try ( SegmentedDownloader downloader = new SegmentedDownloader( 1, 2, 10_000 ) )
+        {
+            downloader.download( url( "3T2024.zip" ), target );
+        }
+
+        assertTrue( Arrays.equals( content, Files.readAllBytes( target ) ) );
+        assertEquals( 1, rangeRequests.get() );
+        assertFalse( Files.exists( dir.resolve( "3T2024.zip.part.validator" ) ) );
+    }
+
+    public void testDiscardsPartsOfOlderVersion() throws Exception
+    {
+        Path target = dir.resolve( "3T2024.zip" );
+        // Segmentos completos, mas de uma versão anterior do arquivo
+        Files.write( dir.resolve( "3T2024.zip.part0" ), new byte[50_000] );
+        Files.write( dir.resolve( "3T2024.zip.part1" ), new byte[20_000] );
+        Files.writeString( dir.resolve( "3T2024.zip.part.validator" ), "\"v0\"" );
+
+        try ( SegmentedDownloader downloader = new SegmentedDownloader( 1, 2, 10_000 ) )
+        {
+            downloader.download( url( "3T2024.zip" ), target );
+        }
+
+        assertTrue( Arrays.equals( content, Files.readAllBytes( target ) ) );
+        assertEquals( 2, rangeRequests.get() );
+    }
+
+    public void testRestartsWhenFileChangesDuringDownload() throws Exception
+    {
+        Path target = dir.resolve( "3T2024.zip" );
+        Files.write( dir.resolve( "3T2024.zip.part0" ), Arrays.copyOfRange( content, 0, 50_000 ) );
+        Files.write( dir.resolve( "3T2024.zip.part1" ), Arrays.copyOfRange( content, 50_000, 70_000 ) );
+        Files.writeString( dir.resolve( "3T2024.zip.part.validator" ), "\"v1\"" );
+        byte[] updated = new byte[content.length];
+        new Random( 7 ).nextBytes( updated );
+        republished = updated;
+
+        try ( SegmentedDownloader downloader = new SegmentedDownloader( 1, 2, 10_000 ) )
+        {
+            assertEquals( "\"v2\"", downloader.download( url( "3T2024.zip" ), target, null ).etag() );
+        }
+
+        // Nada do .part0 antigo sobrevive: o arquivo final é todo da nova versão
+        assertTrue( Arrays.equals( updated, Files.readAllBytes( target ) ) );
+    }
+
+    public void testConditionalRequestSkipsUnchangedFile() throws Exception
+    {
+        Path target = dir.resolve( "4T2024.zip" );
+        try ( SegmentedDownloader downloader = new SegmentedDownloader( 1, 2, 10_000 ) )
+        {
+            DownloadCache.Entry entry = downloader.download( url( "4T2024.zip" ), target, null );
+            assertEquals( "\"v1\"", entry.etag() );
+            assertEquals( content.length, entry.contentLength() );
+            assertEquals( ImportManifest.sha256( target.toFile() ), entry.sha256() );
+
+            int requests = rangeRequests.get();
+            assertNull( downloader.download( url( "4T2024.zip" ), target, entry ) );
+            assertEquals( 1, notModified.get() );
+            assertEquals( requests, rangeRequests.get() );
+        }
+    }
+}
@@ -4,16 +4,21 @@ import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
-import net.lingala.zip4j.ZipFile;
 import java.io.*;
-import java.net.URL;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Map;
 
 public class App {
+    // Downloads simultâneos no total (-Dans.download.threads) e por host (-Dans.download.perHost)
+    private static final int DOWNLOAD_THREADS = Integer.getInteger("ans.download.threads", 8);
+    private static final int DOWNLOADS_PER_HOST = Integer.getInteger("ans.download.perHost", 4);
+    private static final int MAX_ATTEMPTS = 3;
+    // Com -Dans.zip.stream=true, PDFs de até 64 MB vão da rede para o ZIP sem passar pelo disco
+    private static final boolean STREAM_TO_ZIP = Boolean.getBoolean("ans.zip.stream");
+    private static final long MEMORY_LIMIT = 64L * 1024 * 1024;
+
     public static void main(String[] args) {
         String baseUrl = "https://www.gov.br/ans/pt-br/acesso-a-informacao/participacao-da-sociedade/atualizacao-do-rol-de-procedimentos";
 
@@ -33,19 +38,39 @@ public class App {
             }
 
             // Baixar PDFs em paralelo
-            List<File> downloadedFiles = new ArrayList<>();
-            List<CompletableFuture<Void>> downloadTasks = new ArrayList<>();
-
+            Map<String, File> downloads = new LinkedHashMap<>();
             for (String pdfUrl : pdfLinks) {
-                String fileName = "downloads/" + pdfUrl.substring(pdfUrl.lastIndexOf("/") + 1);
-                downloadedFiles.add(new File(fileName));
-                downloadTasks.add(CompletableFuture.runAsync(() -> downloadPDF(pdfUrl, fileName)));
+                downloads.put(pdfUrl, new File("downloads/" + pdfUrl.substring(pdfUrl.lastIndexOf("/") + 1)));
             }
 
-            CompletableFuture.allOf(downloadTasks.toArray(new CompletableFuture[0])).join();
+            // Cada PDF entra no ZIP assim que termina de baixar (uma única thread escreve o ZIP)
+            List<DownloadScheduler.Result> results;
+            int zipped;
+            try (ZipPackager packager = new ZipPackager(new File("anexos.zip"));
+                 DownloadScheduler scheduler = new DownloadScheduler(DOWNLOAD_THREADS, DOWNLOADS_PER_HOST,
+                         MAX_ATTEMPTS, 1000, STREAM_TO_ZIP ? MEMORY_LIMIT : 0)) {
+                results = scheduler.downloadAll(downloads, result -> {
+                    if (!result.ok()) {
+                        return;
+                    }
+                    try {
+                        if (result.content() != null) {
+                            packager.add(result.file().getName(), result.content());
+                        } else {
+                            packager.add(result.file());
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                zipped = packager.finish();
+            }
+            DownloadScheduler.printSummary(results);
 
-            // Compactar os arquivos baixados
-            new ZipFile("anexos.zip").addFiles(downloadedFiles);
+            if (zipped == 0) {
+                System.err.println("Nenhum PDF foi baixado!");
+                return;
+            }
 
             System.out.println("Arquivos baixados e compactados com sucesso!");
 
@@ -71,17 +96,4 @@ public class App {
         }
         return pdfLinks;
     }
-
-    private static void downloadPDF(String pdfUrl, String fileName) {
-        try {
-            URL url = new URL(pdfUrl);
-            ReadableByteChannel rbc = Channels.newChannel(url.openStream());
-            FileOutputStream fos = new FileOutputStream(fileName);
-            fos.getChannel().transferFrom(rbc, 0, Long.MAX_VALUE);
-            fos.close();
-            System.out.println("Download concluído: " + fileName);
-        } catch (IOException e) {
-            System.err.println("Erro ao baixar " + fileName + ": " + e.getMessage());
-        }
-    }
 }
@@ -0,0 +1,195 @@
+package com.ans;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Agenda os downloads num pool próprio dimensionado para I/O (e não pelo número de núcleos,
+// como o ForkJoinPool comum), com limite de conexões simultâneas por host, novas tentativas
+// com espera crescente e um resumo de bytes/s por arquivo. Arquivos até memoryLimit podem ser
+// baixados direto para a memória (content no resultado), sem passar pelo disco.
+class DownloadScheduler implements AutoCloseable {
+    private static final int TIMEOUT = 60000; // 1 minuto
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // nanos é só a transferência da tentativa que deu certo (depois de obter a vaga do host até o fim
+    // da leitura); waitNanos é o resto: fila do host, tentativas falhas e esperas entre elas
+    record Result(String url, File file, long bytes, long nanos, long waitNanos, int attempts, Exception error,
+                  byte[] content) {
+
+        boolean ok() {
+            return error == null;
+        }
+
+        double bytesPerSecond() {
+            return nanos == 0 ? 0 : bytes * 1_000_000_000.0 / nanos;
+        }
+    }
+
+    private final ExecutorService pool;
+    private final int perHost;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long memoryLimit;
+    private final Map<String, Semaphore> hosts = new ConcurrentHashMap<>();
+
+    DownloadScheduler(int threads, int perHost, int maxAttempts, long backoffMillis) {
+        this(threads, perHost, maxAttempts, backoffMillis, 0);
+    }
+
+    DownloadScheduler(int threads, int perHost, int maxAttempts, long backoffMillis, long memoryLimit) {
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "download-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.perHost = Math.max(1, perHost);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoffMillis;
+        this.memoryLimit = memoryLimit;
+    }
+
+    List<Result> downloadAll(Map<String, File> downloads) throws InterruptedException {
+        return downloadAll(downloads, result -> { });
+    }
+
+    // Baixa todos os arquivos (URL -> destino) e devolve um resultado por URL, na mesma ordem;
+    // falhas não interrompem os demais downloads. onComplete roda na thread do download assim
+    // que cada um termina (com sucesso ou não)
+    List<Result> downloadAll(Map<String, File> downloads, Consumer<Result> onComplete) throws InterruptedException {
+        List<Future<Result>> futures = new ArrayList<>();
+        for (Map.Entry<String, File> download : downloads.entrySet()) {
+            futures.add(pool.submit(() -> {
+                Result result = download(download.getKey(), download.getValue());
+                onComplete.accept(result);
+                return result;
+            }));
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (Future<Result> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private Result download(String fileUrl, File target) {
+        long start = System.nanoTime();
+        Exception failure = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                Body body = fetch(fileUrl, target);
+                long waitNanos = System.nanoTime() - start - body.nanos();
+                return new Result(fileUrl, target, body.bytes(), body.nanos(), waitNanos, attempt, null,
+                        body.content());
+            } catch (IOException e) {
+                failure = e;
+                if (attempt < maxAttempts) {
+                    System.err.println("⚠️ Tentativa " + attempt + " falhou para " + fileUrl + ": " + e.getMessage());
+                    try {
+                        Thread.sleep(backoffMillis << (attempt - 1)); // Espera 1x, 2x, 4x...
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        failure = ie;
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = e;
+                break;
+            }
+        }
+        return new Result(fileUrl, target, 0, 0, System.nanoTime() - start, maxAttempts, failure, null);
+    }
+
+    private record Body(long bytes, long nanos, byte[] content) {
+    }
+
+    // Um GET para a memória (se couber no limite) ou para um .part, movido para o destino só quando completo
+    private Body fetch(String fileUrl, File target) throws IOException, InterruptedException {
+        URL url = new URL(fileUrl);
+        Semaphore host = hosts.computeIfAbsent(url.getHost(), h -> new Semaphore(perHost));
+        host.acquire();
+        long started = System.nanoTime();
+        try {
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            conn.setConnectTimeout(TIMEOUT);
+            conn.setReadTimeout(TIMEOUT);
+            try {
+                if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                    throw new IOException("HTTP " + conn.getResponseCode() + " - " + conn.getResponseMessage());
+                }
+                long length = conn.getContentLengthLong();
+                if (length >= 0 && length <= memoryLimit) {
+                    try (InputStream in = conn.getInputStream()) {
+                        byte[] content = in.readAllBytes();
+                        if (content.length != length) {
+                            throw new IOException("Tamanho inesperado: " + content.length + " de " + length);
+                        }
+                        return new Body(content.length, System.nanoTime() - started, content);
+                    }
+                }
+
+                Path part = target.toPath().resolveSibling(target.getName() + ".part");
+                long bytes = 0;
+                try (InputStream in = conn.getInputStream();
+                     OutputStream out = Files.newOutputStream(part)) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    int len;
+                    while ((len = in.read(buffer)) > 0) {
+                        out.write(buffer, 0, len);
+                        bytes += len;
+                    }
+                }
+                long nanos = System.nanoTime() - started;
+                Files.move(part, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                return new Body(bytes, nanos, null);
+            } finally {
+                conn.disconnect();
+            }
+        } finally {
+            host.release();
+        }
+    }
+
+    static void printSummary(List<Result> results) {
+        System.out.println("\n📊 Resumo dos downloads:");
+        for (Result result : results) {
+            if (result.ok()) {
+                System.out.printf("   ✅ %s: %,d bytes em %.1f s (%.1f KB/s, %d tentativa(s), %.1f s de espera)%n",
+                        result.file().getName(), result.bytes(), result.nanos() / 1e9,
+                        result.bytesPerSecond() / 1024, result.attempts(), result.waitNanos() / 1e9);
+            } else {
+                System.out.println("   ❌ " + result.file().getName() + ": " + result.error().getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
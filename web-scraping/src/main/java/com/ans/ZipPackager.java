@@ -0,0 +1,136 @@
+package com.ans;
+
+import net.lingala.zip4j.io.outputstream.ZipOutputStream;
+import net.lingala.zip4j.model.ZipParameters;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Monta o ZIP à medida que os downloads terminam: uma única thread escritora consome uma fila
+// limitada de entradas (arquivo em disco ou conteúdo já em memória), então a compressão corre
+// em paralelo com a rede. O ZIP é gravado num .part e só substitui o destino quando completo.
+class ZipPackager implements AutoCloseable {
+    private static final int QUEUE_SIZE = 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private record Entry(ZipParameters parameters, File file, byte[] content) {
+    }
+
+    private static final Entry END = new Entry(null, null, null);
+
+    private final Path target;
+    private final Path part;
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final Thread writer;
+    private volatile IOException failure;
+    private int entryCount;
+    private boolean closed;
+
+    ZipPackager(File zipFile) {
+        this.target = zipFile.toPath();
+        this.part = target.resolveSibling(zipFile.getName() + ".part");
+        this.writer = new Thread(this::writeEntries, "zip-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Enfileira um arquivo já gravado em disco; bloqueia se a fila estiver cheia.
+    // A compressão da entrada é escolhida aqui, na thread de quem chama, e não na escritora.
+    void add(File file) throws IOException {
+        enqueue(new Entry(ZipCompression.parametersFor(file), file, null));
+    }
+
+    // Enfileira um conteúdo baixado direto para a memória, sem arquivo temporário
+    void add(String name, byte[] content) throws IOException {
+        enqueue(new Entry(ZipCompression.parametersFor(name, content), null, content));
+    }
+
+    private void enqueue(Entry entry) throws IOException {
+        try {
+            // Espera vaga na fila, mas desiste se a escritora falhou e parou de consumir
+            while (!queue.offer(entry, 100, TimeUnit.MILLISECONDS)) {
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Compactação interrompida", e);
+        }
+    }
+
+    private void writeEntries() {
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(part)))) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            Entry entry;
+            while ((entry = queue.take()) != END) {
+                zip.putNextEntry(entry.parameters());
+                if (entry.content() != null) {
+                    zip.write(entry.content());
+                } else {
+                    try (InputStream in = Files.newInputStream(entry.file().toPath())) {
+                        int len;
+                        while ((len = in.read(buffer)) > 0) {
+                            zip.write(buffer, 0, len);
+                        }
+                    }
+                }
+                zip.closeEntry();
+                entryCount++;
+                System.out.println("🗜️ Compactado: " + entry.parameters().getFileNameInZip() +
+                        " (" + entry.parameters().getCompressionMethod() + ")");
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            failure = new IOException("Compactação interrompida", e);
+        }
+    }
+
+    // Espera a fila esvaziar, fecha o ZIP e o move para o destino; devolve o número de entradas
+    int finish() throws IOException {
+        closed = true;
+        if (failure == null) {
+            enqueue(END);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Compactação interrompida", e);
+        }
+        if (failure != null) {
+            Files.deleteIfExists(part);
+            throw failure;
+        }
+        if (entryCount == 0) {
+            Files.deleteIfExists(part); // Nada compactado: mantém o ZIP anterior, se houver
+        } else {
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return entryCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            // Encerrado sem finish(): descarta o ZIP parcial
+            closed = true;
+            writer.interrupt();
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Files.deleteIfExists(part);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.ans;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Agendamento dos downloads contra um servidor HTTP local.
+ */
+public class DownloadSchedulerTest extends TestCase
+{
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private final AtomicInteger flakyCalls = new AtomicInteger();
+    private HttpServer server;
+    private File dir;
+
+    protected void setUp() throws Exception
+    {
+        dir = Files.createTempDirectory( "downloads" ).toFile();
+        server = HttpServer.create( new InetSocketAddress( "127.0.0.1", 0 ), 0 );
+        server.setExecutor( Executors.newCachedThreadPool() );
+        server.createContext( "/", this::serve );
+        server.start();
+    }
+
+    protected void tearDown()
+    {
+        server.stop( 0 );
+    }
+
+    private void serve( HttpExchange exchange ) throws IOException
+    {
+        int now = active.incrementAndGet();
+        maxActive.accumulateAndGet( now, Math::max );
+        try
+        {
+            Thread.sleep( 50 );
+            if ( exchange.getRequestURI().getPath().equals( "/flaky.pdf" ) && flakyCalls.incrementAndGet() == 1 )
+            {
+                exchange.sendResponseHeaders( 503, -1 );
+                return;
+            }
+            byte[] body = exchange.getRequestURI().getPath().getBytes();
+            exchange.sendResponseHeaders( 200, body.length );
+            try ( OutputStream out = exchange.getResponseBody() )
+            {
+                out.write( body );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            active.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private String url( String path )
+    {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    public void testLimitsConcurrencyPerHostAndRetries() throws Exception
+    {
+        Map<String, File> downloads = new LinkedHashMap<>();
+        for ( int i = 0; i < 8; i++ )
+        {
+            downloads.put( url( "/anexo" + i + ".pdf" ), new File( dir, "anexo" + i + ".pdf" ) );
+        }
+        downloads.put( url( "/flaky.pdf" ), new File( dir, "flaky.pdf" ) );
+
+        List<DownloadScheduler.Result> results;
+        try ( DownloadScheduler scheduler = new DownloadScheduler( 8, 2, 3, 10 ) )
+        {
+            results = scheduler.downloadAll( downloads );
+        }
+
+        assertEquals( 9, results.size() );
+        for ( DownloadScheduler.Result result : results )
+        {
+            assertTrue( result.url(), result.ok() );
+        }
+        assertEquals( "/anexo3.pdf", Files.readString( new File( dir, "anexo3.pdf" ).toPath() ) );
+        assertEquals( 2, results.get( 8 ).attempts() );
+        assertTrue( "máximo simultâneo: " + maxActive.get(), maxActive.get() <= 2 );
+    }
+
+    public void testTimesOnlyTheSuccessfulTransfer() throws Exception
+    {
+        Map<String, File> downloads = new LinkedHashMap<>();
+        downloads.put( url( "/flaky.pdf" ), new File( dir, "flaky.pdf" ) );
+
+        List<DownloadScheduler.Result> results;
+        try ( DownloadScheduler scheduler = new DownloadScheduler( 1, 1, 2, 500 ) )
+        {
+            results = scheduler.downloadAll( downloads );
+        }
+
+        // A tentativa falha e a espera de 500 ms entram em waitNanos, não na vazão
+        DownloadScheduler.Result result = results.get( 0 );
+        assertTrue( result.ok() );
+        assertEquals( 2, result.attempts() );
+        assertTrue( "transferência: " + result.nanos(), result.nanos() < 500_000_000L );
+        assertTrue( "espera: " + result.waitNanos(), result.waitNanos() >= 500_000_000L );
+    }
+
+    public void testSmallFilesStayInMemory() throws Exception
+    {
+        File target = new File( dir, "anexo.pdf" );
+        Map<String, File> downloads = new LinkedHashMap<>();
+        downloads.put( url( "/anexo.pdf" ), target );
+
+        List<DownloadScheduler.Result> completed = new CopyOnWriteArrayList<>();
+        try ( DownloadScheduler scheduler = new DownloadScheduler( 2, 2, 1, 10, 1024 ) )
+        {
+            scheduler.downloadAll( downloads, completed::add );
+        }
+
+        assertEquals( 1, completed.size() );
+        assertEquals( "/anexo.pdf", new String( completed.get( 0 ).content() ) );
+        assertFalse( target.exists() );
+    }
+}
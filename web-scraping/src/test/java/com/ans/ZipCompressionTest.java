@@ -0,0 +1,43 @@
+package com.ans;
+
+import junit.framework.TestCase;
+
+import net.lingala.zip4j.model.ZipParameters;
+import net.lingala.zip4j.model.enums.CompressionLevel;
+import net.lingala.zip4j.model.enums.CompressionMethod;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Escolha da compressão por entrada a partir de amostras.
+ */
+public class ZipCompressionTest extends TestCase
+{
+    public void testRandomContentIsStored() throws Exception
+    {
+        byte[] content = new byte[200_000];
+        new Random( 1 ).nextBytes( content );
+        File file = File.createTempFile( "anexo", ".pdf" );
+        file.deleteOnExit();
+        Files.write( file.toPath(), content );
+
+        ZipParameters parameters = ZipCompression.parametersFor( file );
+        assertEquals( CompressionMethod.STORE, parameters.getCompressionMethod() );
+        assertEquals( content.length, parameters.getEntrySize() );
+        assertEquals( file.getName(), parameters.getFileNameInZip() );
+    }
+
+    public void testTextIsDeflated()
+    {
+        StringBuilder csv = new StringBuilder();
+        for ( int i = 0; i < 5000; i++ )
+        {
+            csv.append( "\"" ).append( i ).append( "\",\"CONSULTA MÉDICA\",\"Ambulatorial\"\n" );
+        }
+        ZipParameters parameters = ZipCompression.parametersFor( "procedimentos.csv", csv.toString().getBytes() );
+        assertEquals( CompressionMethod.DEFLATE, parameters.getCompressionMethod() );
+        assertEquals( CompressionLevel.NORMAL, parameters.getCompressionLevel() );
+    }
+}
@@ -0,0 +1,70 @@
+package com.ans;
+
+import junit.framework.TestCase;
+
+import net.lingala.zip4j.ZipFile;
+import net.lingala.zip4j.model.FileHeader;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Montagem do ZIP por uma única thread escritora.
+ */
+public class ZipPackagerTest extends TestCase
+{
+    public void testWritesFileAndMemoryEntries() throws Exception
+    {
+        File dir = Files.createTempDirectory( "zip" ).toFile();
+        File pdf = new File( dir, "Anexo_I.pdf" );
+        Files.writeString( pdf.toPath(), "conteúdo do anexo I" );
+        File zipFile = new File( dir, "anexos.zip" );
+
+        byte[] random;
+        try ( ZipPackager packager = new ZipPackager( zipFile ) )
+        {
+            packager.add( pdf );
+            random = new byte[100_000];
+            new Random( 7 ).nextBytes( random );
+            packager.add( "Anexo_II.pdf", random );
+            for ( int i = 0; i < 10; i++ )
+            {
+                packager.add( "Anexo_" + i + ".pdf", ( "anexo " + i ).getBytes() );
+            }
+            assertEquals( 12, packager.finish() );
+        }
+
+        assertFalse( new File( dir, "anexos.zip.part" ).exists() );
+        ZipFile zip = new ZipFile( zipFile );
+        List<String> names = new ArrayList<>();
+        for ( FileHeader header : zip.getFileHeaders() )
+        {
+            names.add( header.getFileName() );
+        }
+        assertEquals( 12, names.size() );
+        assertEquals( "Anexo_I.pdf", names.get( 0 ) );
+        try ( InputStream in = zip.getInputStream( zip.getFileHeader( "Anexo_9.pdf" ) ) )
+        {
+            assertEquals( "anexo 9", new String( in.readAllBytes() ) );
+        }
+        try ( InputStream in = zip.getInputStream( zip.getFileHeader( "Anexo_II.pdf" ) ) )
+        {
+            assertTrue( Arrays.equals( random, in.readAllBytes() ) );
+        }
+    }
+
+    public void testEmptyPackageKeepsPreviousZip() throws Exception
+    {
+        File zipFile = new File( Files.createTempDirectory( "zip" ).toFile(), "anexos.zip" );
+        try ( ZipPackager packager = new ZipPackager( zipFile ) )
+        {
+            assertEquals( 0, packager.finish() );
+        }
+        assertFalse( zipFile.exists() );
+    }
+}